@@ -0,0 +1,38 @@
+package com.example.booking_service.api;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Function;
+
+public final class KeysetPages {
+
+    public static final String NEXT_AFTER_HEADER = "X-Next-After";
+    public static final int MAX_LIMIT = 1000;
+
+    private KeysetPages() {
+    }
+
+    public static Limit limit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        return Limit.of(limit);
+    }
+
+    public static long after(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    // a full page means there may be more rows: hand back the last id as the next cursor
+    public static <T> ResponseEntity<List<T>> page(List<T> rows, int limit, Function<T, Long> id) {
+        var response = ResponseEntity.ok();
+        if (rows.size() == limit) {
+            response.header(NEXT_AFTER_HEADER, String.valueOf(id.apply(rows.get(rows.size() - 1))));
+        }
+        return response.body(rows);
+    }
+}
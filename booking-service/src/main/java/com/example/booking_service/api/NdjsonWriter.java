@@ -0,0 +1,47 @@
+package com.example.booking_service.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes rows to the response as newline-delimited JSON while they come off the JDBC cursor.
+ * Each entity is detached after it is written so the persistence context stays small; projections pass through.
+ */
+@Component
+public class NdjsonWriter {
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public NdjsonWriter(ObjectMapper objectMapper, EntityManager entityManager) {
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    public void write(Stream<?> rows, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+
+        try (rows) {
+            Iterator<?> it = rows.iterator();
+            while (it.hasNext()) {
+                Object row = it.next();
+                out.write(objectMapper.writeValueAsBytes(row));
+                out.write('\n');
+                if (row.getClass().isAnnotationPresent(Entity.class)) {
+                    entityManager.detach(row);
+                }
+            }
+        }
+        out.flush();
+    }
+}
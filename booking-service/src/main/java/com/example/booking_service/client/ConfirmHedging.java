@@ -0,0 +1,155 @@
+package com.example.booking_service.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hedged confirm-availability: the request goes to one hotel-service replica and, if it has not answered
+ * within the observed confirm latency percentile, a copy goes to a second replica; the first success wins.
+ * Safe because confirm is idempotent per requestId, so both copies end in the same single hold.
+ */
+@Component
+public class ConfirmHedging {
+
+    private static final String SERVICE_ID = "hotel-service";
+    private static final long MIN_SAMPLES = 20;
+
+    private final ObjectProvider<DiscoveryClient> discoveryClient;
+    private final WebClient directClient;
+    private final boolean enabled;
+    private final Duration initialDelay;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final Timer attemptTimer;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    public ConfirmHedging(ObjectProvider<DiscoveryClient> discoveryClient,
+                          HttpClient hotelHttpClient,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.hotel-client.hedge.enabled:true}") boolean enabled,
+                          @Value("${app.hotel-client.hedge.percentile:0.95}") double percentile,
+                          @Value("${app.hotel-client.hedge.initial-delay-ms:300}") long initialDelayMs,
+                          @Value("${app.hotel-client.hedge.min-delay-ms:50}") long minDelayMs,
+                          @Value("${app.hotel-client.hedge.max-delay-ms:1000}") long maxDelayMs) {
+        this.discoveryClient = discoveryClient;
+        // instances are picked here, so this client must bypass the load balancer
+        this.directClient = WebClient.builder().clientConnector(new ReactorClientHttpConnector(hotelHttpClient)).build();
+        this.enabled = enabled;
+        this.initialDelay = Duration.ofMillis(initialDelayMs);
+        this.minDelay = Duration.ofMillis(minDelayMs);
+        this.maxDelay = Duration.ofMillis(maxDelayMs);
+
+        this.attemptTimer = Timer.builder("hotel.client.confirm.attempt")
+                .description("Latency of single confirm attempts, source of the hedge delay")
+                .publishPercentiles(percentile)
+                .register(meterRegistry);
+        this.hedgesSent = Counter.builder("hotel.client.hedge.sent")
+                .description("Second confirm requests sent to another replica")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("hotel.client.hedge.won")
+                .description("Hedged confirm requests that answered first")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Empty when hedging is off or fewer than two replicas are known; the caller then uses the load balancer.
+     */
+    public Optional<Mono<Void>> confirm(Long roomId, Object body, String authHeader) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        DiscoveryClient discovery = discoveryClient.getIfAvailable();
+        if (discovery == null) {
+            return Optional.empty();
+        }
+        List<ServiceInstance> instances = new ArrayList<>(discovery.getInstances(SERVICE_ID));
+        if (instances.size() < 2) {
+            return Optional.empty();
+        }
+        Collections.shuffle(instances);
+        return Optional.of(hedged(instances.get(0), instances.get(1), roomId, body, authHeader));
+    }
+
+    Duration hedgeDelay() {
+        if (attemptTimer.count() < MIN_SAMPLES) {
+            return initialDelay;
+        }
+        ValueAtPercentile[] percentiles = attemptTimer.takeSnapshot().percentileValues();
+        if (percentiles.length == 0) {
+            return initialDelay;
+        }
+        Duration observed = Duration.ofNanos((long) percentiles[0].value(TimeUnit.NANOSECONDS));
+        if (observed.compareTo(minDelay) < 0) return minDelay;
+        if (observed.compareTo(maxDelay) > 0) return maxDelay;
+        return observed;
+    }
+
+    private Mono<Void> hedged(ServiceInstance primary, ServiceInstance backup, Long roomId, Object body, String authHeader) {
+        return Mono.defer(() -> {
+            Sinks.One<Boolean> answered = Sinks.one();
+
+            Mono<Boolean> first = attempt(primary, roomId, body, authHeader)
+                    .doFinally(signal -> answered.tryEmitValue(Boolean.TRUE));
+            Mono<Boolean> second = Mono.delay(hedgeDelay())
+                    .takeUntilOther(answered.asMono())
+                    .flatMap(tick -> {
+                        hedgesSent.increment();
+                        return attempt(backup, roomId, body, authHeader).doOnNext(ok -> hedgesWon.increment());
+                    });
+
+            // first success wins and cancels the other; an error only counts once no attempt is left
+            return Flux.merge(first.materialize(), second.materialize())
+                    .filter(signal -> signal.isOnNext() || signal.isOnError())
+                    .takeUntil(Signal::isOnNext)
+                    .collectList()
+                    .flatMap(signals -> signals.stream().anyMatch(Signal::isOnNext)
+                            ? Mono.<Void>empty()
+                            : Mono.<Void>error(signals.get(0).getThrowable()));
+        });
+    }
+
+    private Mono<Boolean> attempt(ServiceInstance instance, Long roomId, Object body, String authHeader) {
+        URI uri = UriComponentsBuilder.fromUri(instance.getUri())
+                .path(HotelServiceClient.Operation.CONFIRM.path())
+                .buildAndExpand(roomId)
+                .toUri();
+
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return directClient.post()
+                    .uri(uri)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(body)
+                    .header("Authorization", authHeader)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .doOnSuccess(response -> attemptTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS))
+                    .thenReturn(Boolean.TRUE);
+        });
+    }
+}
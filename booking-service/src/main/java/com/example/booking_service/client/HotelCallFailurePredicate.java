@@ -0,0 +1,22 @@
+package com.example.booking_service.client;
+
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+
+import java.util.function.Predicate;
+
+/**
+ * Counts a hotel-service call against the circuit breaker only when hotel-service itself misbehaved:
+ * timeouts, 5xx and I/O errors. 4xx answers such as 409 "room taken" are business outcomes.
+ */
+public class HotelCallFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable ex) {
+        Throwable cause = Exceptions.isRetryExhausted(ex) && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof WebClientResponseException wex) {
+            return wex.getStatusCode().is5xxServerError();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.booking_service.client;
+
+import com.example.booking_service.dto.AutoHoldDto;
+import com.example.booking_service.dto.CommitBatchDto;
+import com.example.booking_service.dto.HotelAvailabilityRequest;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriTemplate;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Typed client for hotel-service internal room endpoints.
+ * Each operation has its own timeout and records latency (hotel.client.requests) and in-flight calls
+ * (hotel.client.in.flight); connection pool saturation is published by Reactor Netty under reactor.netty.connection.provider.
+ * All calls share the hotel-service circuit breaker and bulkhead; calls they reject fail fast and are
+ * counted in hotel.client.rejected.
+ */
+@Component
+public class HotelServiceClient {
+
+    public enum Operation {
+        AUTO_HOLD("/api/internal/rooms/auto-hold"),
+        CONFIRM("/api/internal/rooms/{roomId}/confirm-availability"),
+        RELEASE("/api/internal/rooms/{roomId}/release"),
+        RELEASE_BY_REQUEST("/api/internal/rooms/release"),
+        RELEASE_BATCH("/api/internal/rooms/release-batch"),
+        COMMIT_BATCH("/api/internal/rooms/commit-batch");
+
+        private final String path;
+
+        Operation(String path) {
+            this.path = path;
+        }
+
+        String path() {
+            return path;
+        }
+
+        public String tag() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private static final Retry RETRY = Retry.backoff(2, Duration.ofMillis(200)).filter(HotelServiceClient::isRetryable);
+
+    private static final String INSTANCE = "hotel-service";
+
+    private final WebClient webClient;
+    private final ConfirmHedging confirmHedging;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Map<Operation, UriTemplate> templates = new EnumMap<>(Operation.class);
+    private final Map<Operation, Duration> timeouts = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicInteger> inFlight = new EnumMap<>(Operation.class);
+
+    public HotelServiceClient(WebClient webClient,
+                              ConfirmHedging confirmHedging,
+                              MeterRegistry meterRegistry,
+                              CircuitBreakerRegistry circuitBreakerRegistry,
+                              BulkheadRegistry bulkheadRegistry,
+                              @Value("${hotel.service.url:http://hotel-service}") String hotelServiceUrl,
+                              @Value("${app.hotel-client.timeout.auto-hold-ms:2000}") long autoHoldTimeoutMs,
+                              @Value("${app.hotel-client.timeout.confirm-ms:2000}") long confirmTimeoutMs,
+                              @Value("${app.hotel-client.timeout.release-ms:2000}") long releaseTimeoutMs,
+                              @Value("${app.hotel-client.timeout.release-batch-ms:5000}") long releaseBatchTimeoutMs) {
+        this.webClient = webClient;
+        this.confirmHedging = confirmHedging;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCE);
+        this.bulkhead = bulkheadRegistry.bulkhead(INSTANCE);
+
+        timeouts.put(Operation.AUTO_HOLD, Duration.ofMillis(autoHoldTimeoutMs));
+        timeouts.put(Operation.CONFIRM, Duration.ofMillis(confirmTimeoutMs));
+        timeouts.put(Operation.RELEASE, Duration.ofMillis(releaseTimeoutMs));
+        timeouts.put(Operation.RELEASE_BY_REQUEST, Duration.ofMillis(releaseTimeoutMs));
+        timeouts.put(Operation.RELEASE_BATCH, Duration.ofMillis(releaseBatchTimeoutMs));
+        timeouts.put(Operation.COMMIT_BATCH, Duration.ofMillis(releaseBatchTimeoutMs));
+
+        for (Operation op : Operation.values()) {
+            templates.put(op, new UriTemplate(hotelServiceUrl + op.path()));
+            AtomicInteger counter = new AtomicInteger();
+            inFlight.put(op, counter);
+            Gauge.builder("hotel.client.in.flight", counter, AtomicInteger::get)
+                    .description("hotel-service calls currently waiting for a response")
+                    .tag("operation", op.tag())
+                    .register(meterRegistry);
+        }
+    }
+
+    public Mono<Long> autoHold(HotelAvailabilityRequest request, String authHeader) {
+        return call(Operation.AUTO_HOLD,
+                post(Operation.AUTO_HOLD, request, authHeader).bodyToMono(AutoHoldDto.class),
+                true)
+                .map(AutoHoldDto::getRoomId);
+    }
+
+    public Mono<Void> confirm(Long roomId, HotelAvailabilityRequest request, String authHeader) {
+        Optional<Mono<Void>> hedged = confirmHedging.confirm(roomId, request, authHeader);
+        Mono<?> exchange = hedged.isPresent()
+                ? hedged.get()
+                : post(Operation.CONFIRM, request, authHeader, roomId).toBodilessEntity();
+        return call(Operation.CONFIRM, exchange, true).then();
+    }
+
+    public Mono<Void> release(Long roomId, HotelAvailabilityRequest request, String authHeader) {
+        Mono<?> exchange = roomId == null
+                ? post(Operation.RELEASE_BY_REQUEST, request, authHeader).toBodilessEntity()
+                : post(Operation.RELEASE, request, authHeader, roomId).toBodilessEntity();
+        return call(roomId == null ? Operation.RELEASE_BY_REQUEST : Operation.RELEASE, exchange, true).then();
+    }
+
+    // no retry here: the compensation worker owns the backoff for batches
+    public Mono<Void> releaseBatch(List<String> requestIds, String authHeader) {
+        return call(Operation.RELEASE_BATCH,
+                post(Operation.RELEASE_BATCH, Map.of("requestIds", requestIds), authHeader).toBodilessEntity(),
+                false)
+                .then();
+    }
+
+    // clears the lease on the holds before their bookings are confirmed; returns the requestIds whose hold is gone.
+    // Safe to retry, hotel-service only clears a lease that is still held
+    public Mono<List<String>> commitBatch(List<String> requestIds, String authHeader) {
+        return call(Operation.COMMIT_BATCH,
+                post(Operation.COMMIT_BATCH, Map.of("requestIds", requestIds), authHeader).bodyToMono(CommitBatchDto.class),
+                true)
+                .map(CommitBatchDto::getMissing);
+    }
+
+    private WebClient.ResponseSpec post(Operation op, Object body, String authHeader, Object... uriVariables) {
+        URI uri = templates.get(op).expand(uriVariables);
+        return webClient.post()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .header("Authorization", authHeader)
+                .retrieve();
+    }
+
+    /**
+     * True when the circuit breaker or bulkhead refused the call, so nothing reached hotel-service.
+     */
+    public static boolean isRejected(Throwable ex) {
+        return ex instanceof CallNotPermittedException || ex instanceof BulkheadFullException;
+    }
+
+    private <T> Mono<T> call(Operation op, Mono<T> exchange, boolean retry) {
+        Mono<T> attempt = exchange.timeout(timeouts.get(op));
+        Mono<T> guarded = (retry ? attempt.retryWhen(RETRY) : attempt)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead));
+
+        return Mono.defer(() -> {
+            AtomicInteger counter = inFlight.get(op);
+            counter.incrementAndGet();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return guarded
+                    .doOnSuccess(ignored -> sample.stop(timer(op, "success")))
+                    .doOnError(ex -> {
+                        sample.stop(timer(op, outcome(ex)));
+                        if (isRejected(ex)) {
+                            rejected(op, ex).increment();
+                        }
+                    })
+                    .doFinally(signal -> counter.decrementAndGet());
+        });
+    }
+
+    private Timer timer(Operation op, String outcome) {
+        return Timer.builder("hotel.client.requests")
+                .description("hotel-service call latency including retries")
+                .tag("operation", op.tag())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter rejected(Operation op, Throwable ex) {
+        return Counter.builder("hotel.client.rejected")
+                .description("hotel-service calls refused by the circuit breaker or bulkhead")
+                .tag("operation", op.tag())
+                .tag("reason", ex instanceof CallNotPermittedException ? "circuit-open" : "bulkhead-full")
+                .register(meterRegistry);
+    }
+
+    private static String outcome(Throwable ex) {
+        if (isRejected(ex)) return "rejected";
+        Throwable cause = Exceptions.isRetryExhausted(ex) && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof TimeoutException) return "timeout";
+        if (cause instanceof WebClientResponseException wex) {
+            return wex.getStatusCode().is4xxClientError() ? "client-error" : "server-error";
+        }
+        return "io-error";
+    }
+
+    private static boolean isRetryable(Throwable ex) {
+        if (ex instanceof TimeoutException) return true;
+
+        if (ex instanceof WebClientResponseException wex) {
+            return wex.getStatusCode().is5xxServerError();
+        }
+
+        return false;
+    }
+}
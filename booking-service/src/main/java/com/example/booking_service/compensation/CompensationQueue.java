@@ -0,0 +1,44 @@
+package com.example.booking_service.compensation;
+
+import com.example.booking_service.model.CompensationRetry;
+import com.example.booking_service.repository.CompensationRetryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Persistent queue of hold releases that failed during saga compensation; drained by {@link CompensationRetryWorker}.
+ */
+@Component
+public class CompensationQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(CompensationQueue.class);
+
+    private final CompensationRetryRepository retryRepository;
+
+    public CompensationQueue(CompensationRetryRepository retryRepository) {
+        this.retryRepository = retryRepository;
+    }
+
+    public void enqueue(Long bookingId, String requestId, Throwable cause) {
+        if (retryRepository.existsByRequestId(requestId)) {
+            return;
+        }
+
+        CompensationRetry retry = new CompensationRetry();
+        retry.setBookingId(bookingId);
+        retry.setRequestId(requestId);
+        retry.setNextAttemptAt(Instant.now());
+        retry.setLastError(CompensationRetryWorker.describe(cause));
+        try {
+            retryRepository.save(retry);
+            log.warn("Compensation queued for retry: bookingId={}, requestId={}, reason={}",
+                    bookingId, requestId, retry.getLastError());
+        } catch (DataIntegrityViolationException duplicate) {
+            log.info("Compensation already queued: requestId={}", requestId);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.booking_service.compensation;
+
+import com.example.booking_service.client.HotelServiceClient;
+import com.example.booking_service.model.CompensationRetry;
+import com.example.booking_service.repository.CompensationRetryRepository;
+import com.example.booking_service.security.JwtService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays queued hold releases with exponential backoff.
+ * Due entries are coalesced into release-batch calls, so each round trip lands on one hotel-service instance
+ * (whichever the load balancer picks) and frees up to coalesce-size holds at once.
+ */
+@Component
+public class CompensationRetryWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(CompensationRetryWorker.class);
+    private static final String SERVICE_USER = "booking-service";
+
+    private final CompensationRetryRepository retryRepository;
+    private final HotelServiceClient hotelClient;
+    private final JwtService jwtService;
+    private final int batchSize;
+    private final int coalesceSize;
+    private final Duration backoffInitial;
+    private final Duration backoffMax;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+    private final Counter released;
+    private final Counter failed;
+
+    public CompensationRetryWorker(CompensationRetryRepository retryRepository,
+                                   HotelServiceClient hotelClient,
+                                   JwtService jwtService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.compensation.batch-size:200}") int batchSize,
+                                   @Value("${app.compensation.coalesce-size:50}") int coalesceSize,
+                                   @Value("${app.compensation.backoff-initial-ms:1000}") long backoffInitialMs,
+                                   @Value("${app.compensation.backoff-max-ms:300000}") long backoffMaxMs) {
+        this.retryRepository = retryRepository;
+        this.hotelClient = hotelClient;
+        this.jwtService = jwtService;
+        this.batchSize = batchSize;
+        this.coalesceSize = coalesceSize;
+        this.backoffInitial = Duration.ofMillis(backoffInitialMs);
+        this.backoffMax = Duration.ofMillis(backoffMaxMs);
+
+        Gauge.builder("booking.compensation.queue.depth", depth, AtomicLong::get)
+                .description("Hold releases waiting for retry")
+                .register(meterRegistry);
+        Gauge.builder("booking.compensation.queue.oldest.age", oldestAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest queued hold release")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.released = Counter.builder("booking.compensation.released")
+                .description("Hold releases completed by the retry worker")
+                .register(meterRegistry);
+        this.failed = Counter.builder("booking.compensation.failed")
+                .description("Hold release retries that failed and were rescheduled")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.compensation.poll-ms:1000}")
+    public void retryDue() {
+        retryDue(Instant.now());
+    }
+
+    public void retryDue(Instant now) {
+        List<CompensationRetry> due = retryRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                now, Limit.of(batchSize));
+
+        for (int from = 0; from < due.size(); from += coalesceSize) {
+            List<CompensationRetry> chunk = due.subList(from, Math.min(from + coalesceSize, due.size()));
+            try {
+                releaseBatch(chunk);
+                retryRepository.deleteAllInBatch(chunk);
+                released.increment(chunk.size());
+                log.info("Queued compensations released: count={}", chunk.size());
+            } catch (RuntimeException ex) {
+                reschedule(chunk, now, ex);
+            }
+        }
+
+        refreshGauges(now);
+    }
+
+    private void releaseBatch(List<CompensationRetry> chunk) {
+        List<String> requestIds = chunk.stream().map(CompensationRetry::getRequestId).toList();
+
+        String token = jwtService.generateToken(SERVICE_USER, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        hotelClient.releaseBatch(requestIds, "Bearer " + token).block();
+    }
+
+    private void reschedule(List<CompensationRetry> chunk, Instant now, RuntimeException ex) {
+        String reason = describe(ex);
+        for (CompensationRetry retry : chunk) {
+            retry.setAttempts(retry.getAttempts() + 1);
+            retry.setNextAttemptAt(now.plus(backoff(retry.getAttempts())));
+            retry.setLastError(reason);
+        }
+        retryRepository.saveAll(chunk);
+        failed.increment(chunk.size());
+        log.warn("Queued compensations failed, rescheduled: count={}, reason={}", chunk.size(), reason);
+    }
+
+    // full jitter: uniform in [initial, min(max, initial * 2^attempts)]
+    Duration backoff(int attempts) {
+        long cap = backoffInitial.toMillis() << Math.min(attempts, 20);
+        long upper = Math.min(backoffMax.toMillis(), cap);
+        long lower = Math.min(backoffInitial.toMillis(), upper);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(lower, upper + 1));
+    }
+
+    private void refreshGauges(Instant now) {
+        depth.set(retryRepository.count());
+        oldestAgeSeconds.set(retryRepository.findFirstByOrderByCreatedAtAsc()
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), now).toSeconds())
+                .orElse(0L));
+    }
+
+    static String describe(Throwable ex) {
+        String message = ex.getClass().getSimpleName() + ": " + ex.getMessage();
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
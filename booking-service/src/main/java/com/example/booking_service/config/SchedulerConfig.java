@@ -0,0 +1,48 @@
+package com.example.booking_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Scheduler for blocking JPA work inside reactive booking pipelines.
+ * On platform threads it is bounded to the connection pool so callers queue here instead of inside Hikari;
+ * with spring.threads.virtual.enabled every task gets its own virtual thread and Hikari does the bounding.
+ */
+@Configuration
+public class SchedulerConfig {
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Scheduler jpaScheduler(@Value("${app.booking.jpa-threads:10}") int threads,
+                                  @Value("${app.booking.jpa-queue:10000}") int queue) {
+        return Schedulers.newBoundedElastic(threads, queue, "booking-jpa");
+    }
+
+    @Bean(name = "jpaScheduler", destroyMethod = "dispose")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Scheduler virtualJpaScheduler() {
+        return Schedulers.fromExecutorService(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("booking-jpa-", 0).factory()),
+                "booking-jpa"
+        );
+    }
+
+    /**
+     * Background jobs: outbox dispatch, compensation retries, SSE status polling and purges.
+     * Tests turn them off with app.scheduling.enabled=false, since cached contexts share the in-memory DB.
+     */
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+    static class Jobs {
+    }
+}
@@ -1,17 +1,57 @@
 package com.example.booking_service.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    // pooled, kept-alive connections to hotel-service; pool gauges go to reactor.netty.connection.provider.*
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider hotelConnectionProvider(
+            @Value("${app.hotel-client.pool.max-connections:200}") int maxConnections,
+            @Value("${app.hotel-client.pool.pending-acquire-max:1000}") int pendingAcquireMax,
+            @Value("${app.hotel-client.pool.pending-acquire-timeout-ms:1000}") long pendingAcquireTimeoutMs,
+            @Value("${app.hotel-client.pool.max-idle-ms:30000}") long maxIdleMs,
+            @Value("${app.hotel-client.pool.max-life-ms:300000}") long maxLifeMs) {
+        return ConnectionProvider.builder("hotel-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeMs))
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public HttpClient hotelHttpClient(ConnectionProvider hotelConnectionProvider,
+                                      @Value("${app.hotel-client.connect-timeout-ms:500}") int connectTimeoutMs,
+                                      @Value("${app.hotel-client.http2:false}") boolean http2) {
+        return HttpClient.create(hotelConnectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .protocol(http2
+                        ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11});
+    }
+
     @Bean
     @LoadBalanced
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder webClientBuilder(HttpClient hotelHttpClient) {
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(hotelHttpClient));
     }
 
     @Bean
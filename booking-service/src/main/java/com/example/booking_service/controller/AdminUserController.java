@@ -2,6 +2,8 @@ package com.example.booking_service.controller;
 
 import com.example.booking_service.model.User;
 import com.example.booking_service.repository.UserRepository;
+import com.example.booking_service.security.RefreshTokenService;
+import com.example.booking_service.security.UserIdentityCache;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -14,10 +16,17 @@ public class AdminUserController {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserIdentityCache userCache;
+    private final RefreshTokenService refreshTokens;
 
-    public AdminUserController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public AdminUserController(UserRepository userRepository,
+                               PasswordEncoder passwordEncoder,
+                               UserIdentityCache userCache,
+                               RefreshTokenService refreshTokens) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
+        this.refreshTokens = refreshTokens;
     }
 
     public static class CreateUserRequest {
@@ -91,15 +100,20 @@ public class AdminUserController {
             u.setRole(role);
         }
 
-        return userRepository.save(u);
+        User saved = userRepository.save(u);
+        userCache.evict(saved.getUsername());
+        // new password or role: outstanding refresh tokens must not mint tokens for the old state
+        refreshTokens.revokeAll(saved.getId());
+        return saved;
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public void deleteUser(@PathVariable Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
-        }
-        userRepository.deleteById(id);
+        User u = userRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        refreshTokens.revokeAll(u.getId());
+        userRepository.delete(u);
+        userCache.evict(u.getUsername());
     }
 }
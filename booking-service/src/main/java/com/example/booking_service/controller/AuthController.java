@@ -2,37 +2,44 @@ package com.example.booking_service.controller;
 
 import com.example.booking_service.model.User;
 import com.example.booking_service.repository.UserRepository;
-import com.example.booking_service.security.DbUserDetailsService;
 import com.example.booking_service.security.JwtService;
+import com.example.booking_service.security.PasswordHashing;
+import com.example.booking_service.security.RefreshTokenService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.*;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/user")
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authManager;
+    private final PasswordHashing passwordHashing;
+    private final RefreshTokenService refreshTokens;
     private final JwtService jwtService;
+    private final Scheduler jpaScheduler;
+    // verified against for unknown usernames, so a miss costs the same as a wrong password
+    private final String dummyHash;
 
     public AuthController(UserRepository userRepository,
                           PasswordEncoder passwordEncoder,
-                          DbUserDetailsService uds,
-                          JwtService jwtService) {
+                          PasswordHashing passwordHashing,
+                          RefreshTokenService refreshTokens,
+                          JwtService jwtService,
+                          Scheduler jpaScheduler) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashing = passwordHashing;
+        this.refreshTokens = refreshTokens;
         this.jwtService = jwtService;
-
-        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setUserDetailsService(uds);
-        provider.setPasswordEncoder(passwordEncoder);
-        this.authManager = new ProviderManager(provider);
+        this.jpaScheduler = jpaScheduler;
+        this.dummyHash = passwordEncoder.encode("dummy-password");
     }
 
     public static class RegisterRequest {
@@ -46,13 +53,23 @@ public class AuthController {
         public String password;
     }
 
+    public static class RefreshRequest {
+        public String refreshToken;
+    }
+
     public static class TokenResponse {
         public String token;
-        public TokenResponse(String token) { this.token = token; }
+        public String refreshToken;
+        public long expiresIn;
+        public TokenResponse(String token, String refreshToken, long expiresIn) {
+            this.token = token;
+            this.refreshToken = refreshToken;
+            this.expiresIn = expiresIn;
+        }
     }
 
     @PostMapping("/register")
-    public TokenResponse register(@RequestBody RegisterRequest req) {
+    public Mono<TokenResponse> register(@RequestBody RegisterRequest req) {
         if (req.username == null || req.username.isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "username is required");
         }
@@ -60,27 +77,27 @@ public class AuthController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "password is required");
         }
 
-        if (userRepository.findByUsername(req.username).isPresent()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "username already exists");
-        }
-
-        User u = new User();
-        u.setUsername(req.username);
-        u.setPassword(passwordEncoder.encode(req.password));
-        u.setRole((req.role == null || req.role.isBlank()) ? "USER" : req.role.trim());
-
-        userRepository.save(u);
-
-        Authentication auth = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(req.username, req.password)
-        );
-
-        String token = jwtService.generateToken(auth.getName(), auth.getAuthorities());
-        return new TokenResponse(token);
+        return Mono.fromCallable(() -> userRepository.findByUsername(req.username).isPresent())
+                .subscribeOn(jpaScheduler)
+                .flatMap(exists -> exists
+                        ? Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "username already exists"))
+                        : passwordHashing.encode(req.password))
+                .publishOn(jpaScheduler)
+                .map(hash -> {
+                    User u = new User();
+                    u.setUsername(req.username);
+                    u.setPassword(hash);
+                    u.setRole((req.role == null || req.role.isBlank()) ? "USER" : req.role.trim());
+
+                    // the password was just hashed from this request, no need to verify it again
+                    return issueTokens(userRepository.save(u));
+                })
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, "username already exists"));
     }
 
     @PostMapping("/auth")
-    public TokenResponse auth(@RequestBody AuthRequest req) {
+    public Mono<TokenResponse> auth(@RequestBody AuthRequest req) {
         if (req.username == null || req.username.isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "username is required");
         }
@@ -88,11 +105,36 @@ public class AuthController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "password is required");
         }
 
-        Authentication auth = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(req.username, req.password)
-        );
+        return Mono.fromCallable(() -> userRepository.findByUsername(req.username))
+                .subscribeOn(jpaScheduler)
+                .flatMap(user -> passwordHashing.matches(req.password, user.map(User::getPassword).orElse(dummyHash))
+                        .flatMap(ok -> ok ? Mono.justOrEmpty(user) : Mono.<User>empty()))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Bad credentials")))
+                .publishOn(jpaScheduler)
+                .map(this::issueTokens);
+    }
+
+    @PostMapping("/refresh")
+    public Mono<TokenResponse> refresh(@RequestBody RefreshRequest req) {
+        if (req.refreshToken == null || req.refreshToken.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "refreshToken is required");
+        }
+
+        return Mono.fromCallable(() -> {
+                    RefreshTokenService.Rotation rotation = refreshTokens.rotate(req.refreshToken)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+                    return new TokenResponse(accessToken(rotation.user()), rotation.refreshToken(), JwtService.EXPIRES_IN_SECONDS);
+                })
+                .subscribeOn(jpaScheduler);
+    }
+
+    private TokenResponse issueTokens(User user) {
+        return new TokenResponse(accessToken(user), refreshTokens.issue(user), JwtService.EXPIRES_IN_SECONDS);
+    }
 
-        String token = jwtService.generateToken(auth.getName(), auth.getAuthorities());
-        return new TokenResponse(token);
+    private String accessToken(User user) {
+        String role = user.getRole();
+        String authority = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+        return jwtService.generateToken(user.getUsername(), List.of(new SimpleGrantedAuthority(authority)));
     }
 }
@@ -1,41 +1,79 @@
 package com.example.booking_service.controller;
 
-import com.example.booking_service.dto.HotelAvailabilityRequest;
+import com.example.booking_service.api.KeysetPages;
+import com.example.booking_service.api.NdjsonWriter;
+import com.example.booking_service.dto.BookingSummary;
+import com.example.booking_service.history.BookingHistory;
+import com.example.booking_service.idempotency.BookingIdempotency;
 import com.example.booking_service.model.*;
+import com.example.booking_service.outbox.BookingOutboxService;
+import com.example.booking_service.outbox.BookingStatusStream;
 import com.example.booking_service.repository.BookingRepository;
-import com.example.booking_service.repository.UserRepository;
+import com.example.booking_service.saga.BookingSaga;
+import com.example.booking_service.saga.GroupBookingSaga;
+import com.example.booking_service.security.UserIdentityCache;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.security.access.prepost.PreAuthorize;
-import reactor.util.retry.Retry;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
-import java.time.Duration;
+import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
 public class BookingController {
 
-    private final WebClient webClient;
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
+    private final UserIdentityCache userCache;
+    private final NdjsonWriter ndjsonWriter;
+    private final Scheduler jpaScheduler;
+    private final BookingSaga saga;
+    private final BookingOutboxService outboxService;
+    private final BookingStatusStream statusStream;
+    private final BookingIdempotency idempotency;
+    private final GroupBookingSaga groupSaga;
+    private final BookingHistory history;
+    private final int maxBatchItems;
     private static final Logger log = LoggerFactory.getLogger(BookingController.class);
 
-    @Value("${hotel.service.url:http://hotel-service}")
-    private String hotelServiceUrl;
 
-
-    public BookingController(BookingRepository bookingRepository, UserRepository userRepository, WebClient webClient) {
+    public BookingController(BookingRepository bookingRepository,
+                             UserIdentityCache userCache,
+                             NdjsonWriter ndjsonWriter,
+                             Scheduler jpaScheduler,
+                             BookingSaga saga,
+                             BookingOutboxService outboxService,
+                             BookingStatusStream statusStream,
+                             BookingIdempotency idempotency,
+                             GroupBookingSaga groupSaga,
+                             BookingHistory history,
+                             @Value("${app.booking.batch.max-items:200}") int maxBatchItems) {
         this.bookingRepository = bookingRepository;
-        this.userRepository = userRepository;
-        this.webClient = webClient;
+        this.userCache = userCache;
+        this.ndjsonWriter = ndjsonWriter;
+        this.jpaScheduler = jpaScheduler;
+        this.saga = saga;
+        this.outboxService = outboxService;
+        this.statusStream = statusStream;
+        this.idempotency = idempotency;
+        this.groupSaga = groupSaga;
+        this.history = history;
+        this.maxBatchItems = maxBatchItems;
     }
 
     public static class CreateBookingRequest {
@@ -57,27 +95,23 @@ public class BookingController {
         public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
     }
 
-    public static class RoomDto {
-        private Long id;
-        private String number;
+    public static class BatchBookingRequest {
+        private List<CreateBookingRequest> items;
 
-        public RoomDto() {}
+        public BatchBookingRequest() {}
 
-        public Long getId() { return id; }
-        public String getNumber() { return number; }
+        public List<CreateBookingRequest> getItems() { return items; }
 
-        public void setId(Long id) { this.id = id; }
-        public void setNumber(String number) { this.number = number; }
+        public void setItems(List<CreateBookingRequest> items) { this.items = items; }
     }
 
     @PreAuthorize("hasRole('USER')")
     @PostMapping("/booking")
-    public Booking create(@RequestBody CreateBookingRequest request,
-                          @RequestHeader("Authorization") String authHeader,
-                          Authentication authentication) {
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+    public Mono<ResponseEntity<Booking>> create(@RequestBody CreateBookingRequest request,
+                                                @RequestHeader("Authorization") String authHeader,
+                                                @RequestHeader(value = "Prefer", required = false) String prefer,
+                                                @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                Authentication authentication) {
         if (request.getStartDate() == null || request.getEndDate() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startDate/endDate are required");
         }
@@ -87,256 +121,249 @@ public class BookingController {
 
         boolean auto = Boolean.TRUE.equals(request.getAutoSelect());
 
-        log.info(
-                "Create booking request: user={}, autoSelect={}, roomId={}, startDate={}, endDate={}",
-                user.getUsername(),
-                request.getAutoSelect(),
-                request.getRoomId(),
-                request.getStartDate(),
-                request.getEndDate()
-        );
-
         if (!auto && request.getRoomId() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "roomId is required when autoSelect=false");
         }
-        Long selectedRoomId = request.getRoomId();
 
-        if (auto) {
-            selectedRoomId = autoSelectRoomId(request, authHeader);
-            if (selectedRoomId == null) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "No available rooms for selected dates");
-            }
-        }
+        String username = authentication.getName();
+        boolean respondAsync = prefer != null && prefer.contains("respond-async");
 
-        Booking booking = new Booking();
-        booking.setRoomId(selectedRoomId);
-        booking.setUser(user);
-        booking.setStartDate(request.getStartDate());
-        booking.setEndDate(request.getEndDate());
-        booking.setStatus(BookingStatus.PENDING);
-
-        Booking saved = bookingRepository.save(booking);
-
-        System.out.println("BOOKING " + saved.getId() + " created, status=PENDING");
-
-        log.info(
-                "Booking created with status PENDING: bookingId={}, user={}",
-                booking.getId(),
-                user.getUsername()
-        );
-
-        String requestId = saved.getId().toString();
-
-        HotelAvailabilityRequest hotelReq = new HotelAvailabilityRequest(
-                requestId,
-                request.getStartDate().toString(),
-                request.getEndDate().toString()
-        );
-
-        try {
-            log.info(
-                    "Requesting room availability confirmation: bookingId={}, roomId={}, requestId={}",
-                    booking.getId(),
-                    selectedRoomId,
-                    requestId
-            );
-
-            webClient.post()
-                    .uri(hotelServiceUrl + "/api/internal/rooms/" + selectedRoomId + "/confirm-availability")
-                    .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
-                    .bodyValue(hotelReq)
-                    .header("Authorization", authHeader)
-                    .retrieve()
-                    .toBodilessEntity()
-                    .timeout(Duration.ofSeconds(2))
-                    .retryWhen(
-                            Retry.backoff(2, Duration.ofMillis(200))
-                                    .filter(ex -> isRetryable(ex))
-                    )
-                    .block();
-
-            log.info(
-                    "Room availability confirmed: bookingId={}, roomId={}, requestId={}",
-                    booking.getId(),
-                    selectedRoomId,
-                    requestId
-            );
-
-            saved.setStatus(BookingStatus.CONFIRMED);
-            log.info(
-                    "Booking status updated to CONFIRMED: bookingId={}",
-                    booking.getId()
-            );
-
-            Booking confirmed = bookingRepository.save(saved);
-            System.out.println("BOOKING " + confirmed.getId() + " confirmed");
-
-            return confirmed;
-
-        } catch (Exception ex) {
-            System.out.println("BOOKING " + saved.getId() + " failed, status=CANCELLED, running compensation");
-            log.warn(
-                    "Room availability confirmation failed: bookingId={}, roomId={}, requestId={}, reason={}",
-                    booking.getId(),
-                    selectedRoomId,
-                    requestId,
-                    ex.getMessage()
-            );
-
-            saved.setStatus(BookingStatus.CANCELLED);
-            Booking cancelled = bookingRepository.save(saved);
-
-            try {
-                log.info(
-                        "Sending compensation release: bookingId={}, roomId={}, requestId={}",
-                        booking.getId(),
-                        selectedRoomId,
-                        requestId
-                );
-
-                webClient.post()
-                        .uri(hotelServiceUrl + "/api/internal/rooms/" + selectedRoomId + "/release")
-                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
-                        .bodyValue(hotelReq)
-                        .header("Authorization", authHeader)
-                        .retrieve()
-                        .toBodilessEntity()
-                        .timeout(Duration.ofSeconds(2))
-                        .retryWhen(Retry.backoff(2, Duration.ofMillis(200)).filter(this::isRetryable))
-                        .block();
-            } catch (Exception ignore) {}
-
-            log.info(
-                    "Compensation completed, booking cancelled: bookingId={}",
-                    booking.getId()
-            );
-
-            return cancelled;
+        if (idempotencyKey == null) {
+            return createBooking(request, auto, respondAsync, username, authHeader);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1..255 characters");
         }
+        String fingerprint = String.join("|", String.valueOf(auto), String.valueOf(request.getRoomId()),
+                request.getStartDate().toString(), request.getEndDate().toString(), String.valueOf(respondAsync));
+        return idempotency.execute(username, idempotencyKey, fingerprint,
+                () -> createBooking(request, auto, respondAsync, username, authHeader),
+                this::replay);
     }
 
-    private boolean isRetryable(Throwable ex) {
-        if (ex instanceof java.util.concurrent.TimeoutException) return true;
+    private Mono<ResponseEntity<Booking>> createBooking(CreateBookingRequest request,
+                                                        boolean auto,
+                                                        boolean respondAsync,
+                                                        String username,
+                                                        String authHeader) {
+        return Mono.fromCallable(() -> {
+                    User user = userCache.findByUsername(username)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+
+                    log.info(
+                            "Create booking request: user={}, autoSelect={}, roomId={}, startDate={}, endDate={}",
+                            user.getUsername(),
+                            request.getAutoSelect(),
+                            request.getRoomId(),
+                            request.getStartDate(),
+                            request.getEndDate()
+                    );
+
+                    Booking booking = new Booking();
+                    booking.setRoomId(request.getRoomId());
+                    booking.setUser(user);
+                    booking.setStartDate(request.getStartDate());
+                    booking.setEndDate(request.getEndDate());
+                    booking.setStatus(BookingStatus.PENDING);
+
+                    Booking saved = respondAsync
+                            ? outboxService.enqueue(booking, auto)
+                            : bookingRepository.save(booking);
+
+                    System.out.println("BOOKING " + saved.getId() + " created, status=PENDING");
+
+                    log.info(
+                            "Booking created with status PENDING: bookingId={}, user={}",
+                            saved.getId(),
+                            user.getUsername()
+                    );
+                    return saved;
+                })
+                .subscribeOn(jpaScheduler)
+                .flatMap(saved -> respondAsync
+                        ? Mono.just(ResponseEntity.accepted()
+                                .location(URI.create("/api/booking/" + saved.getId()))
+                                .header("Preference-Applied", "respond-async")
+                                .body(saved))
+                        : saga.run(saved, auto, authHeader).map(ResponseEntity::ok))
+                .doFinally(signal -> history.evict(username));
+    }
 
-        if (ex instanceof WebClientResponseException wex) {
-            return wex.getStatusCode().is5xxServerError();
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping("/bookings/batch")
+    public Mono<List<Booking>> createBatch(@RequestBody BatchBookingRequest request,
+                                          @RequestHeader("Authorization") String authHeader,
+                                          Authentication authentication) {
+        List<CreateBookingRequest> items = request.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "items are required");
+        }
+        if (items.size() > maxBatchItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "too many items, max " + maxBatchItems);
         }
+        for (int i = 0; i < items.size(); i++) {
+            validateBatchItem(items, i);
+        }
+
+        String username = authentication.getName();
 
-        return false;
+        return Mono.fromCallable(() -> {
+                    User user = userCache.findByUsername(username)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+
+                    List<Booking> bookings = new ArrayList<>(items.size());
+                    for (CreateBookingRequest item : items) {
+                        Booking booking = new Booking();
+                        booking.setRoomId(Boolean.TRUE.equals(item.getAutoSelect()) ? null : item.getRoomId());
+                        booking.setUser(user);
+                        booking.setStartDate(item.getStartDate());
+                        booking.setEndDate(item.getEndDate());
+                        booking.setStatus(BookingStatus.PENDING);
+                        bookings.add(booking);
+                    }
+                    // one transaction for the whole group
+                    List<Booking> saved = bookingRepository.saveAll(bookings);
+
+                    log.info("Group booking created with status PENDING: user={}, bookings={}",
+                            user.getUsername(), saved.size());
+                    return saved;
+                })
+                .subscribeOn(jpaScheduler)
+                .flatMap(saved -> groupSaga.run(saved, authHeader))
+                .doFinally(signal -> history.evict(username));
+    }
+
+    private static void validateBatchItem(List<CreateBookingRequest> items, int i) {
+        CreateBookingRequest item = items.get(i);
+        String at = "items[" + i + "]: ";
+        if (item == null || item.getStartDate() == null || item.getEndDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, at + "startDate/endDate are required");
+        }
+        if (!item.getStartDate().isBefore(item.getEndDate())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, at + "startDate must be before endDate");
+        }
+        if (Boolean.TRUE.equals(item.getAutoSelect())) {
+            return;
+        }
+        if (item.getRoomId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, at + "roomId is required when autoSelect=false");
+        }
+        // the same room twice with overlapping dates would fail its own second hold
+        for (int j = 0; j < i; j++) {
+            CreateBookingRequest other = items.get(j);
+            if (!Boolean.TRUE.equals(other.getAutoSelect())
+                    && item.getRoomId().equals(other.getRoomId())
+                    && item.getStartDate().isBefore(other.getEndDate())
+                    && other.getStartDate().isBefore(item.getEndDate())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        at + "overlaps items[" + j + "] for roomId " + item.getRoomId());
+            }
+        }
+    }
+
+    private Mono<ResponseEntity<Booking>> replay(BookingIdempotency.Outcome outcome) {
+        return Mono.fromCallable(() -> bookingRepository.findById(outcome.bookingId())
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found")))
+                .subscribeOn(jpaScheduler)
+                .map(booking -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.status(outcome.status())
+                            .header("Idempotent-Replayed", "true");
+                    if (outcome.status() == HttpStatus.ACCEPTED.value()) {
+                        response.location(URI.create("/api/booking/" + booking.getId()));
+                    }
+                    return response.body(booking);
+                });
     }
 
     @PreAuthorize("hasRole('USER')")
     @GetMapping("/bookings")
-    public Object myBookings(Authentication auth) {
+    public ResponseEntity<List<BookingSummary>> myBookings(@RequestParam(required = false) Long after,
+                                                           @RequestParam(defaultValue = "100") int limit,
+                                                           Authentication auth) {
         String username = auth.getName();
-        User u = userRepository.findByUsername(username)
+        User u = userCache.findByUsername(username)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        return bookingRepository.findByUserId(u.getId());
+        List<BookingSummary> bookings = history.page(username, u.getId(), after, limit);
+        return KeysetPages.page(bookings, limit, BookingSummary::id);
     }
 
     @PreAuthorize("hasRole('USER')")
-    @GetMapping("/booking/{id}")
-    public Booking getBookingById(@PathVariable Long id,
-                                  org.springframework.security.core.Authentication auth) {
-
+    @GetMapping(value = "/bookings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamMyBookings(@RequestParam(required = false) Long after,
+                                 Authentication auth,
+                                 HttpServletResponse response) throws IOException {
         String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
-
-        return bookingRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
+        User u = userCache.findByUsername(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        ndjsonWriter.write(bookingRepository.streamSummariesByUserId(u.getId(), KeysetPages.after(after)), response);
     }
 
     @PreAuthorize("hasRole('USER')")
-    @DeleteMapping("/booking/{id}")
-    public Booking cancelBooking(@PathVariable Long id,
-                                 org.springframework.security.core.Authentication auth) {
+    @GetMapping("/booking/{id}")
+    public Mono<Booking> getBookingById(@PathVariable Long id,
+                                        org.springframework.security.core.Authentication auth) {
 
         String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
-
-        Booking booking = bookingRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
-
-        log.info(
-                "Cancel booking request: bookingId={}, user={}",
-                booking.getId(),
-                user.getUsername()
-        );
-
-        if (booking.getStatus() == BookingStatus.CANCELLED) {
-            log.info(
-                    "Booking already cancelled (idempotent): bookingId={}",
-                    booking.getId()
-            );
-            return booking;
-        }
 
-        booking.setStatus(BookingStatus.CANCELLED);
-        return bookingRepository.save(booking);
+        return Mono.fromCallable(() -> {
+                    User user = userCache.findByUsername(username)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+
+                    return bookingRepository.findByIdAndUser(id, user)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
+                })
+                .subscribeOn(jpaScheduler);
     }
 
-    private Long autoSelectRoomId(CreateBookingRequest request, String authHeader) {
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping(value = "/booking/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<SseEmitter> bookingEvents(@PathVariable Long id, Authentication auth) {
+        String username = auth.getName();
 
-        RoomDto[] rooms = webClient.get()
-                .uri(hotelServiceUrl + "/api/rooms/recommend")
-                .header("Authorization", authHeader)
-                .retrieve()
-                .bodyToMono(RoomDto[].class)
-                .timeout(Duration.ofSeconds(2))
-                .retryWhen(Retry.backoff(2, Duration.ofMillis(200)).filter(this::isRetryable))
-                .block();
+        return Mono.fromCallable(() -> {
+                    User user = userCache.findByUsername(username)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+                    Booking booking = bookingRepository.findByIdAndUser(id, user)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
+                    return statusStream.subscribe(booking);
+                })
+                .subscribeOn(jpaScheduler);
+    }
 
-        if (rooms == null || rooms.length == 0) {
-            return null;
-        }
+    @PreAuthorize("hasRole('USER')")
+    @DeleteMapping("/booking/{id}")
+    public Mono<Booking> cancelBooking(@PathVariable Long id,
+                                       org.springframework.security.core.Authentication auth) {
 
-        for (RoomDto room : rooms) {
-            Long roomId = room.getId();
-            if (roomId == null) continue;
-
-            HotelAvailabilityRequest hotelReq = new HotelAvailabilityRequest(
-                    "precheck-" + System.currentTimeMillis(),
-                    request.getStartDate().toString(),
-                    request.getEndDate().toString()
-            );
-
-            try {
-                webClient.post()
-                        .uri(hotelServiceUrl + "/api/internal/rooms/" + roomId + "/confirm-availability")
-                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
-                        .bodyValue(hotelReq)
-                        .header("Authorization", authHeader)
-                        .retrieve()
-                        .toBodilessEntity()
-                        .timeout(Duration.ofSeconds(2))
-                        .retryWhen(Retry.backoff(2, Duration.ofMillis(200)).filter(this::isRetryable))
-                        .block();
-
-                try {
-                    webClient.post()
-                            .uri(hotelServiceUrl + "/api/internal/rooms/" + roomId + "/release")
-                            .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
-                            .bodyValue(hotelReq)
-                            .header("Authorization", authHeader)
-                            .retrieve()
-                            .toBodilessEntity()
-                            .timeout(Duration.ofSeconds(2))
-                            .retryWhen(Retry.backoff(2, Duration.ofMillis(200)).filter(this::isRetryable))
-                            .block();
-                } catch (Exception ignore) {}
-
-                return roomId;
-
-            } catch (WebClientResponseException wex) {
-                if (wex.getStatusCode().value() == 409) {
-                    continue;
-                }
-                throw wex;
-            }
-        }
+        String username = auth.getName();
 
-        return null;
+        return Mono.fromCallable(() -> {
+                    User user = userCache.findByUsername(username)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+
+                    Booking booking = bookingRepository.findByIdAndUser(id, user)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
+
+                    log.info(
+                            "Cancel booking request: bookingId={}, user={}",
+                            booking.getId(),
+                            user.getUsername()
+                    );
+
+                    if (booking.getStatus() == BookingStatus.CANCELLED) {
+                        log.info(
+                                "Booking already cancelled (idempotent): bookingId={}",
+                                booking.getId()
+                        );
+                        return booking;
+                    }
+
+                    booking.setStatus(BookingStatus.CANCELLED);
+                    Booking cancelled = bookingRepository.save(booking);
+                    history.evict(username);
+                    return cancelled;
+                })
+                .subscribeOn(jpaScheduler);
     }
 }
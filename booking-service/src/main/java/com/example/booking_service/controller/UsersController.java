@@ -1,9 +1,16 @@
 package com.example.booking_service.controller;
 
+import java.io.IOException;
 import java.util.List;
 
+import com.example.booking_service.api.KeysetPages;
+import com.example.booking_service.api.NdjsonWriter;
 import com.example.booking_service.model.User;
 import com.example.booking_service.repository.UserRepository;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -11,13 +18,24 @@ import org.springframework.web.bind.annotation.*;
 public class UsersController {
 
     private final UserRepository userRepository;
+    private final NdjsonWriter ndjsonWriter;
 
-    public UsersController(UserRepository userRepository) {
+    public UsersController(UserRepository userRepository, NdjsonWriter ndjsonWriter) {
         this.userRepository = userRepository;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     @GetMapping
-    public List<User> getAll() {
-        return userRepository.findAll();
+    public ResponseEntity<List<User>> getAll(@RequestParam(required = false) Long after,
+                                             @RequestParam(defaultValue = "100") int limit) {
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPages.after(after), KeysetPages.limit(limit));
+        return KeysetPages.page(users, limit, User::getId);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamAll(@RequestParam(required = false) Long after, HttpServletResponse response) throws IOException {
+        ndjsonWriter.write(userRepository.streamByIdGreaterThan(KeysetPages.after(after)), response);
     }
 }
@@ -0,0 +1,17 @@
+package com.example.booking_service.dto;
+
+public class AutoHoldDto {
+
+    private Long roomId;
+
+    public AutoHoldDto() {
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.booking_service.dto;
+
+import com.example.booking_service.model.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read model for booking history: booking columns only, no user join.
+ */
+public record BookingSummary(Long id,
+                             Long roomId,
+                             LocalDate startDate,
+                             LocalDate endDate,
+                             BookingStatus status,
+                             LocalDateTime createdAt) {
+}
@@ -0,0 +1,19 @@
+package com.example.booking_service.dto;
+
+import java.util.List;
+
+public class CommitBatchDto {
+
+    private List<String> missing = List.of();
+
+    public CommitBatchDto() {
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<String> missing) {
+        this.missing = missing;
+    }
+}
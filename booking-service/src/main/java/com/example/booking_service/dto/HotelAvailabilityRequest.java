@@ -5,6 +5,7 @@ public class HotelAvailabilityRequest {
     private String requestId;
     private String startDate;
     private String endDate;
+    private Long holdTtlSeconds;
 
     public HotelAvailabilityRequest() {
     }
@@ -27,6 +28,10 @@ public class HotelAvailabilityRequest {
         return endDate;
     }
 
+    public Long getHoldTtlSeconds() {
+        return holdTtlSeconds;
+    }
+
     public void setRequestId(String requestId) {
         this.requestId = requestId;
     }
@@ -38,4 +43,8 @@ public class HotelAvailabilityRequest {
     public void setEndDate(String endDate) {
         this.endDate = endDate;
     }
+
+    public void setHoldTtlSeconds(Long holdTtlSeconds) {
+        this.holdTtlSeconds = holdTtlSeconds;
+    }
 }
@@ -0,0 +1,55 @@
+package com.example.booking_service.history;
+
+import com.example.booking_service.api.KeysetPages;
+import com.example.booking_service.dto.BookingSummary;
+import com.example.booking_service.repository.BookingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keyset pages of a user's booking history, cached per user for a short TTL.
+ * Creating or cancelling a booking evicts all of that user's pages; the TTL covers status changes made elsewhere.
+ */
+@Component
+public class BookingHistory {
+
+    private record PageKey(long after, int limit) {}
+
+    private final BookingRepository bookingRepository;
+    private final Cache<String, Map<PageKey, List<BookingSummary>>> pages;
+
+    public BookingHistory(BookingRepository bookingRepository,
+                          ObjectProvider<MeterRegistry> meterRegistry,
+                          @Value("${app.booking.history.max-users:10000}") long maxUsers,
+                          @Value("${app.booking.history.ttl-ms:5000}") long ttlMs) {
+        this.bookingRepository = bookingRepository;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, pages, "booking-history"));
+    }
+
+    public List<BookingSummary> page(String username, Long userId, Long after, int limit) {
+        Limit validLimit = KeysetPages.limit(limit);
+        PageKey key = new PageKey(KeysetPages.after(after), validLimit.max());
+        return pages.get(username, u -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> bookingRepository.findSummariesByUserId(userId, k.after(), validLimit));
+    }
+
+    public void evict(String username) {
+        pages.invalidate(username);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.booking_service.idempotency;
+
+import com.example.booking_service.model.Booking;
+import com.example.booking_service.model.IdempotencyKey;
+import com.example.booking_service.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for booking creation.
+ * The first request with a key runs and records its outcome in {@code idempotency_keys} (unique per user and key);
+ * repeats replay that outcome. Duplicates arriving while the first one runs on this instance wait for it through
+ * an in-memory map; finished outcomes stay in a bounded cache so most replays skip the table.
+ * The first request runs detached from its subscriber, so a client that gives up does not stop the saga and its
+ * retry gets the outcome. A duplicate that finds the claim taken on another instance polls the row until the
+ * outcome is recorded or the lease runs out; a claim without an outcome older than the lease is taken over.
+ */
+@Component
+public class BookingIdempotency {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingIdempotency.class);
+
+    public record Outcome(String fingerprint, int status, Long bookingId, String reason) {
+        boolean succeeded() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    private final IdempotencyKeyRepository keyRepository;
+    private final Scheduler jpaScheduler;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Duration poll;
+    private final Map<String, CompletableFuture<Outcome>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, Outcome> completed;
+
+    public BookingIdempotency(IdempotencyKeyRepository keyRepository,
+                              Scheduler jpaScheduler,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.cache-size:10000}") long cacheSize,
+                              @Value("${app.idempotency.lease-ms:60000}") long leaseMs,
+                              @Value("${app.idempotency.poll-ms:250}") long pollMs) {
+        this.keyRepository = keyRepository;
+        this.jpaScheduler = jpaScheduler;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lease = Duration.ofMillis(leaseMs);
+        this.poll = Duration.ofMillis(pollMs);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code action} once per (username, key); any other request with the same key gets {@code replay}
+     * of the recorded outcome, or the recorded error.
+     */
+    public Mono<ResponseEntity<Booking>> execute(String username,
+                                                 String key,
+                                                 String fingerprint,
+                                                 Supplier<Mono<ResponseEntity<Booking>>> action,
+                                                 Function<Outcome, Mono<ResponseEntity<Booking>>> replay) {
+        String scope = username + "\n" + key;
+
+        Outcome done = completed.getIfPresent(scope);
+        if (done != null) {
+            return answer(done, fingerprint, replay);
+        }
+
+        CompletableFuture<Outcome> mine = new CompletableFuture<>();
+        CompletableFuture<Outcome> running = inFlight.putIfAbsent(scope, mine);
+        if (running != null) {
+            return Mono.fromFuture(running, true)
+                    .flatMap(outcome -> answer(outcome, fingerprint, replay));
+        }
+
+        CompletableFuture<ResponseEntity<Booking>> response = Mono.fromCallable(() -> claim(username, key, fingerprint))
+                .subscribeOn(jpaScheduler)
+                .retryWhen(Retry.fixedDelay(Math.max(1, lease.toMillis() / Math.max(1, poll.toMillis())), poll)
+                        .filter(ClaimedElsewhere.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> inProgress()))
+                .flatMap(claim -> {
+                    if (claim.outcome() != null) {
+                        return Mono.fromRunnable(() -> finish(scope, mine, claim.outcome()))
+                                .then(answer(claim.outcome(), fingerprint, replay));
+                    }
+                    return run(scope, mine, claim.id(), fingerprint, action);
+                })
+                .doOnError(e -> fail(scope, mine, e))
+                .toFuture();
+        // subscribed above rather than by the caller: cancelling this Mono leaves the saga running
+        return Mono.fromFuture(response, true);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-ms:3600000}")
+    public void purgeExpired() {
+        int purged = keyRepository.deleteCreatedBefore(Instant.now().minus(ttl));
+        if (purged > 0) {
+            log.info("Expired idempotency keys purged: count={}", purged);
+        }
+    }
+
+    private record Claim(Long id, Outcome outcome) {}
+
+    // the key is claimed on another instance and has no outcome yet
+    private static final class ClaimedElsewhere extends RuntimeException {
+        ClaimedElsewhere() {
+            super(null, null, false, false);
+        }
+    }
+
+    private Claim claim(String username, String key, String fingerprint) {
+        var existing = keyRepository.findByUsernameAndIdemKey(username, key);
+        if (existing.isPresent()) {
+            IdempotencyKey row = existing.get();
+            Instant now = Instant.now();
+            if (row.getStatusCode() == null
+                    && keyRepository.reclaim(row.getId(), fingerprint, now, now.minus(lease)) == 1) {
+                log.info("Stale idempotency claim taken over: username={}, key={}", username, key);
+                return new Claim(row.getId(), null);
+            }
+            return new Claim(row.getId(), recorded(row));
+        }
+
+        IdempotencyKey row = new IdempotencyKey();
+        row.setUsername(username);
+        row.setIdemKey(key);
+        row.setRequestFingerprint(fingerprint);
+        try {
+            return new Claim(keyRepository.saveAndFlush(row).getId(), null);
+        } catch (DataIntegrityViolationException concurrent) {
+            // another instance claimed the key between our read and insert
+            throw new ClaimedElsewhere();
+        }
+    }
+
+    private Outcome recorded(IdempotencyKey row) {
+        if (row.getStatusCode() == null) {
+            throw new ClaimedElsewhere();
+        }
+        return new Outcome(row.getRequestFingerprint(), row.getStatusCode(), row.getBookingId(), row.getReason());
+    }
+
+    private Mono<ResponseEntity<Booking>> run(String scope,
+                                              CompletableFuture<Outcome> mine,
+                                              Long rowId,
+                                              String fingerprint,
+                                              Supplier<Mono<ResponseEntity<Booking>>> action) {
+        return action.get()
+                .flatMap(response -> record(scope, mine, rowId, new Outcome(fingerprint,
+                        response.getStatusCode().value(), response.getBody().getId(), null))
+                        .thenReturn(response))
+                .onErrorResume(BookingIdempotency::isFinal, e -> {
+                    ResponseStatusException rejected = (ResponseStatusException) e;
+                    return record(scope, mine, rowId, new Outcome(fingerprint,
+                            rejected.getStatusCode().value(), null, rejected.getReason()))
+                            .then(Mono.error(e));
+                })
+                .onErrorResume(e -> !isFinal(e), e -> Mono.fromRunnable(() -> {
+                            // transient or unexpected failure: forget the key so the client's retry runs again
+                            keyRepository.deleteById(rowId);
+                            inFlight.remove(scope, mine);
+                        })
+                        .subscribeOn(jpaScheduler)
+                        .then(Mono.error(e)));
+    }
+
+    // a 4xx answer is what any retry would get too, so it is replayed; 5xx and timeouts are worth retrying
+    private static boolean isFinal(Throwable e) {
+        return e instanceof ResponseStatusException rse && rse.getStatusCode().is4xxClientError();
+    }
+
+    private Mono<Void> record(String scope, CompletableFuture<Outcome> mine, Long rowId, Outcome outcome) {
+        return Mono.fromRunnable(() -> {
+                    keyRepository.complete(rowId, outcome.status(), outcome.bookingId(), outcome.reason());
+                    finish(scope, mine, outcome);
+                })
+                .subscribeOn(jpaScheduler)
+                .then();
+    }
+
+    private void finish(String scope, CompletableFuture<Outcome> mine, Outcome outcome) {
+        completed.put(scope, outcome);
+        inFlight.remove(scope, mine);
+        mine.complete(outcome);
+    }
+
+    private void fail(String scope, CompletableFuture<Outcome> mine, Throwable e) {
+        inFlight.remove(scope, mine);
+        mine.completeExceptionally(e);
+    }
+
+    private static Mono<ResponseEntity<Booking>> answer(Outcome outcome,
+                                                        String fingerprint,
+                                                        Function<Outcome, Mono<ResponseEntity<Booking>>> replay) {
+        if (!outcome.fingerprint().equals(fingerprint)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request"));
+        }
+        if (!outcome.succeeded()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.valueOf(outcome.status()), outcome.reason()));
+        }
+        return replay.apply(outcome);
+    }
+
+    private static ResponseStatusException inProgress() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.booking_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "booking_outbox")
+public class BookingOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "booking_id", nullable = false, unique = true)
+    private Long bookingId;
+
+    @Column(name = "auto_select", nullable = false)
+    private boolean autoSelect;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public BookingOutbox() {}
+
+    public BookingOutbox(Long bookingId, boolean autoSelect) {
+        this.bookingId = bookingId;
+        this.autoSelect = autoSelect;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
+    public Long getId() { return id; }
+    public Long getBookingId() { return bookingId; }
+    public boolean isAutoSelect() { return autoSelect; }
+    public int getAttempts() { return attempts; }
+    public Instant getLockedUntil() { return lockedUntil; }
+    public Instant getCreatedAt() { return createdAt; }
+
+    public void setId(Long id) { this.id = id; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+    public void setAutoSelect(boolean autoSelect) { this.autoSelect = autoSelect; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public void setLockedUntil(Instant lockedUntil) { this.lockedUntil = lockedUntil; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,64 @@
+package com.example.booking_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_user_key", columnNames = {"username", "idem_key"}))
+public class IdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "idem_key", nullable = false)
+    private String idemKey;
+
+    @Column(name = "request_fingerprint", nullable = false, length = 200)
+    private String requestFingerprint;
+
+    // null while the first request is still running
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(length = 500)
+    private String reason;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public IdempotencyKey() {}
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getIdemKey() { return idemKey; }
+    public String getRequestFingerprint() { return requestFingerprint; }
+    public Integer getStatusCode() { return statusCode; }
+    public Long getBookingId() { return bookingId; }
+    public String getReason() { return reason; }
+    public Instant getCreatedAt() { return createdAt; }
+
+    public void setId(Long id) { this.id = id; }
+    public void setUsername(String username) { this.username = username; }
+    public void setIdemKey(String idemKey) { this.idemKey = idemKey; }
+    public void setRequestFingerprint(String requestFingerprint) { this.requestFingerprint = requestFingerprint; }
+    public void setStatusCode(Integer statusCode) { this.statusCode = statusCode; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+    public void setReason(String reason) { this.reason = reason; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,144 @@
+package com.example.booking_service.outbox;
+
+import com.example.booking_service.history.BookingHistory;
+import com.example.booking_service.model.Booking;
+import com.example.booking_service.model.BookingOutbox;
+import com.example.booking_service.model.BookingStatus;
+import com.example.booking_service.model.User;
+import com.example.booking_service.repository.BookingOutboxRepository;
+import com.example.booking_service.repository.BookingRepository;
+import com.example.booking_service.saga.BookingSaga;
+import com.example.booking_service.security.JwtService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Drains booking_outbox in batches and runs the saga for each accepted booking.
+ * A row is claimed with a lease before dispatch and deleted afterwards; if the instance dies mid-saga
+ * the lease runs out and the row is dispatched again, which hotel-service absorbs through the requestId.
+ */
+@Component
+public class BookingOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingOutboxDispatcher.class);
+
+    private final BookingOutboxRepository outboxRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingSaga saga;
+    private final JwtService jwtService;
+    private final BookingStatusStream statusStream;
+    private final BookingHistory history;
+    private final Scheduler jpaScheduler;
+    private final int batchSize;
+    private final int maxBatches;
+    private final int concurrency;
+    private final Duration lease;
+
+    public BookingOutboxDispatcher(BookingOutboxRepository outboxRepository,
+                                   BookingRepository bookingRepository,
+                                   BookingSaga saga,
+                                   JwtService jwtService,
+                                   BookingStatusStream statusStream,
+                                   BookingHistory history,
+                                   Scheduler jpaScheduler,
+                                   @Value("${app.outbox.batch-size:100}") int batchSize,
+                                   @Value("${app.outbox.max-batches:10}") int maxBatches,
+                                   @Value("${app.outbox.concurrency:16}") int concurrency,
+                                   @Value("${app.outbox.lease-ms:30000}") long leaseMs) {
+        this.outboxRepository = outboxRepository;
+        this.bookingRepository = bookingRepository;
+        this.saga = saga;
+        this.jwtService = jwtService;
+        this.statusStream = statusStream;
+        this.history = history;
+        this.jpaScheduler = jpaScheduler;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.concurrency = concurrency;
+        this.lease = Duration.ofMillis(leaseMs);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:200}")
+    public void drain() {
+        for (int i = 0; i < maxBatches; i++) {
+            if (dispatchBatch() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    int dispatchBatch() {
+        Instant now = Instant.now();
+        List<BookingOutbox> ready = outboxRepository.findReady(now, Limit.of(batchSize));
+        List<BookingOutbox> claimed = ready.stream()
+                .filter(row -> outboxRepository.claim(row.getId(), now, now.plus(lease)) == 1)
+                .toList();
+        if (claimed.isEmpty()) {
+            return ready.size();
+        }
+
+        try {
+            Flux.fromIterable(claimed)
+                    .flatMap(this::dispatch, concurrency)
+                    .then()
+                    .block(lease);
+            log.debug("Outbox batch dispatched: rows={}", claimed.size());
+        } catch (RuntimeException ex) {
+            log.warn("Outbox batch did not finish within lease: rows={}, reason={}", claimed.size(), ex.getMessage());
+        }
+        return ready.size();
+    }
+
+    private Mono<Void> dispatch(BookingOutbox row) {
+        return Mono.fromCallable(() -> bookingRepository.findById(row.getBookingId()))
+                .subscribeOn(jpaScheduler)
+                .flatMap(found -> {
+                    if (found.isEmpty() || found.get().getStatus() != BookingStatus.PENDING) {
+                        return Mono.justOrEmpty(found);
+                    }
+                    Booking booking = found.get();
+                    log.info(
+                            "Dispatching outbox booking: bookingId={}, autoSelect={}, attempt={}",
+                            booking.getId(),
+                            row.isAutoSelect(),
+                            row.getAttempts() + 1
+                    );
+                    return saga.run(booking, row.isAutoSelect(), "Bearer " + serviceToken(booking.getUser()))
+                            .onErrorResume(ResponseStatusException.class, ex -> Mono.just(booking));
+                })
+                .doOnNext(booking -> {
+                    statusStream.publish(booking);
+                    history.evict(booking.getUser().getUsername());
+                })
+                .then(Mono.fromRunnable(() -> outboxRepository.deleteById(row.getId())).subscribeOn(jpaScheduler))
+                .onErrorResume(ex -> {
+                    log.warn(
+                            "Outbox dispatch failed, retry after lease: bookingId={}, reason={}",
+                            row.getBookingId(),
+                            ex.getMessage()
+                    );
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // the caller's own token is gone by now; mint one for the booking owner with the same authority
+    private String serviceToken(User user) {
+        String role = user.getRole();
+        String authority = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+        return jwtService.generateToken(user.getUsername(), List.of(new SimpleGrantedAuthority(authority)));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.booking_service.outbox;
+
+import com.example.booking_service.model.Booking;
+import com.example.booking_service.model.BookingOutbox;
+import com.example.booking_service.repository.BookingOutboxRepository;
+import com.example.booking_service.repository.BookingRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class BookingOutboxService {
+
+    private final BookingRepository bookingRepository;
+    private final BookingOutboxRepository outboxRepository;
+
+    public BookingOutboxService(BookingRepository bookingRepository, BookingOutboxRepository outboxRepository) {
+        this.bookingRepository = bookingRepository;
+        this.outboxRepository = outboxRepository;
+    }
+
+    /**
+     * Stores the PENDING booking together with its outbox row, so a committed booking is always dispatched.
+     */
+    @Transactional
+    public Booking enqueue(Booking pending, boolean autoSelect) {
+        Booking saved = bookingRepository.save(pending);
+        outboxRepository.save(new BookingOutbox(saved.getId(), autoSelect));
+        return saved;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.booking_service.outbox;
+
+import com.example.booking_service.model.Booking;
+import com.example.booking_service.model.BookingStatus;
+import com.example.booking_service.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Server-sent status events for bookings accepted with 202.
+ * The dispatcher pushes the final status directly; a periodic lookup catches bookings finished by another instance.
+ */
+@Component
+public class BookingStatusStream {
+
+    public record StatusEvent(Long id, BookingStatus status, Long roomId) {}
+
+    private final BookingRepository bookingRepository;
+    private final long timeoutMs;
+    private final ConcurrentHashMap<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public BookingStatusStream(BookingRepository bookingRepository,
+                               @Value("${app.outbox.sse-timeout-ms:60000}") long timeoutMs) {
+        this.bookingRepository = bookingRepository;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter subscribe(Booking booking) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        send(emitter, booking);
+        if (booking.getStatus() != BookingStatus.PENDING) {
+            emitter.complete();
+            return emitter;
+        }
+
+        Long id = booking.getId();
+        subscribers.computeIfAbsent(id, k -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> unsubscribe(id, emitter));
+        emitter.onTimeout(() -> unsubscribe(id, emitter));
+        emitter.onError(ex -> unsubscribe(id, emitter));
+        return emitter;
+    }
+
+    public void publish(Booking booking) {
+        if (booking.getStatus() == BookingStatus.PENDING) {
+            return;
+        }
+        List<SseEmitter> emitters = subscribers.remove(booking.getId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, booking);
+            emitter.complete();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.status-poll-ms:1000}")
+    public void pollPending() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        bookingRepository.findAllById(List.copyOf(subscribers.keySet())).forEach(this::publish);
+    }
+
+    private void unsubscribe(Long id, SseEmitter emitter) {
+        subscribers.computeIfPresent(id, (k, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private void send(SseEmitter emitter, Booking booking) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("status")
+                    .data(new StatusEvent(booking.getId(), booking.getStatus(), booking.getRoomId())));
+        } catch (IOException | IllegalStateException ex) {
+            emitter.completeWithError(ex);
+        }
+    }
+}
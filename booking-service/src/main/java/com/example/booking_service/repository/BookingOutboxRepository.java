@@ -0,0 +1,26 @@
+package com.example.booking_service.repository;
+
+import com.example.booking_service.model.BookingOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface BookingOutboxRepository extends JpaRepository<BookingOutbox, Long> {
+
+    @Query("select o from BookingOutbox o where o.lockedUntil is null or o.lockedUntil < :now order by o.id")
+    List<BookingOutbox> findReady(@Param("now") Instant now, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update BookingOutbox o set o.lockedUntil = :until, o.attempts = o.attempts + 1
+            where o.id = :id and (o.lockedUntil is null or o.lockedUntil < :now)
+            """)
+    int claim(@Param("id") Long id, @Param("now") Instant now, @Param("until") Instant until);
+}
@@ -1,14 +1,32 @@
 package com.example.booking_service.repository;
 
+import com.example.booking_service.dto.BookingSummary;
 import com.example.booking_service.model.Booking;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 import com.example.booking_service.model.User;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByUserId(Long userId);
+    // keyset on (user_id, id), served by idx_bookings_user_id_id
+    @Query("select new com.example.booking_service.dto.BookingSummary(b.id, b.roomId, b.startDate, b.endDate, b.status, b.createdAt) "
+            + "from Booking b where b.user.id = :userId and b.id > :after order by b.id")
+    List<BookingSummary> findSummariesByUserId(@Param("userId") Long userId, @Param("after") Long after, Limit limit);
+
+    @Query("select new com.example.booking_service.dto.BookingSummary(b.id, b.roomId, b.startDate, b.endDate, b.status, b.createdAt) "
+            + "from Booking b where b.user.id = :userId and b.id > :after order by b.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<BookingSummary> streamSummariesByUserId(@Param("userId") Long userId, @Param("after") Long after);
 
     Optional<Booking> findByIdAndUser(Long id, User user);
 }
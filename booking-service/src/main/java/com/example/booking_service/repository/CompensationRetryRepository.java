@@ -0,0 +1,18 @@
+package com.example.booking_service.repository;
+
+import com.example.booking_service.model.CompensationRetry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface CompensationRetryRepository extends JpaRepository<CompensationRetry, Long> {
+
+    boolean existsByRequestId(String requestId);
+
+    List<CompensationRetry> findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(Instant now, Limit limit);
+
+    Optional<CompensationRetry> findFirstByOrderByCreatedAtAsc();
+}
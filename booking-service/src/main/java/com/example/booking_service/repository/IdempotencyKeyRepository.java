@@ -0,0 +1,39 @@
+package com.example.booking_service.repository;
+
+import com.example.booking_service.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    Optional<IdempotencyKey> findByUsernameAndIdemKey(String username, String idemKey);
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyKey k set k.statusCode = :status, k.bookingId = :bookingId, k.reason = :reason where k.id = :id")
+    int complete(@Param("id") Long id,
+                 @Param("status") int status,
+                 @Param("bookingId") Long bookingId,
+                 @Param("reason") String reason);
+
+    // takes over a claim whose owner never recorded an outcome (its instance died mid-request); only one caller can win it
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyKey k set k.requestFingerprint = :fingerprint, k.createdAt = :now " +
+            "where k.id = :id and k.statusCode is null and k.createdAt < :staleBefore")
+    int reclaim(@Param("id") Long id,
+                @Param("fingerprint") String fingerprint,
+                @Param("now") Instant now,
+                @Param("staleBefore") Instant staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,172 @@
+package com.example.booking_service.saga;
+
+import com.example.booking_service.client.HotelServiceClient;
+import com.example.booking_service.compensation.CompensationQueue;
+import com.example.booking_service.dto.HotelAvailabilityRequest;
+import com.example.booking_service.model.Booking;
+import com.example.booking_service.model.BookingStatus;
+import com.example.booking_service.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+
+/**
+ * Booking saga against hotel-service, shared by the synchronous POST /api/booking and the outbox dispatcher.
+ */
+@Component
+public class BookingSaga {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingSaga.class);
+
+    private final BookingRepository bookingRepository;
+    private final HotelServiceClient hotelClient;
+    private final Scheduler jpaScheduler;
+    private final CompensationQueue compensationQueue;
+    private final long holdTtlSeconds;
+
+    public BookingSaga(BookingRepository bookingRepository,
+                       HotelServiceClient hotelClient,
+                       Scheduler jpaScheduler,
+                       CompensationQueue compensationQueue,
+                       @Value("${app.booking.hold-ttl-seconds:900}") long holdTtlSeconds) {
+        this.bookingRepository = bookingRepository;
+        this.hotelClient = hotelClient;
+        this.jpaScheduler = jpaScheduler;
+        this.compensationQueue = compensationQueue;
+        this.holdTtlSeconds = holdTtlSeconds;
+    }
+
+    /**
+     * Holds the room for a PENDING booking and moves it to CONFIRMED, or to CANCELLED with a compensating release.
+     * The hold is taken with a lease (app.booking.hold-ttl-seconds), so hotel-service expires it if this service
+     * dies mid-saga. The lease is committed before the booking is saved as CONFIRMED; a hold that lapsed first
+     * cancels the booking instead.
+     * Errors out only with 409 when auto-select found no free room, and with 503 when the hotel-service
+     * circuit breaker or bulkhead refused the hold.
+     */
+    public Mono<Booking> run(Booking saved, boolean auto, String authHeader) {
+        String requestId = saved.getId().toString();
+
+        HotelAvailabilityRequest hotelReq = new HotelAvailabilityRequest(
+                requestId,
+                saved.getStartDate().toString(),
+                saved.getEndDate().toString()
+        );
+        hotelReq.setHoldTtlSeconds(holdTtlSeconds);
+
+        Mono<Long> held;
+        if (auto) {
+            log.info(
+                    "Requesting room auto-hold: bookingId={}, requestId={}",
+                    saved.getId(),
+                    requestId
+            );
+
+            held = hotelClient.autoHold(hotelReq, authHeader);
+        } else {
+            log.info(
+                    "Requesting room availability confirmation: bookingId={}, roomId={}, requestId={}",
+                    saved.getId(),
+                    saved.getRoomId(),
+                    requestId
+            );
+
+            held = hotelClient.confirm(saved.getRoomId(), hotelReq, authHeader)
+                    .thenReturn(saved.getRoomId());
+        }
+
+        return held
+                .flatMap(roomId -> hotelClient.commitBatch(List.of(requestId), authHeader)
+                        .flatMap(missing -> missing.isEmpty()
+                                ? Mono.just(roomId)
+                                : Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                                        "Room hold expired before the booking was confirmed"))))
+                .publishOn(jpaScheduler)
+                .map(roomId -> {
+                    log.info(
+                            "Room availability confirmed: bookingId={}, roomId={}, requestId={}",
+                            saved.getId(),
+                            roomId,
+                            requestId
+                    );
+
+                    saved.setRoomId(roomId);
+                    saved.setStatus(BookingStatus.CONFIRMED);
+                    log.info(
+                            "Booking status updated to CONFIRMED: bookingId={}",
+                            saved.getId()
+                    );
+
+                    Booking confirmed = bookingRepository.save(saved);
+                    System.out.println("BOOKING " + confirmed.getId() + " confirmed");
+
+                    return confirmed;
+                })
+                .onErrorResume(ex -> compensate(saved, auto, hotelReq, authHeader, ex));
+    }
+
+    private Mono<Booking> compensate(Booking saved,
+                                     boolean auto,
+                                     HotelAvailabilityRequest hotelReq,
+                                     String authHeader,
+                                     Throwable ex) {
+        String requestId = hotelReq.getRequestId();
+
+        return Mono.fromCallable(() -> {
+                    System.out.println("BOOKING " + saved.getId() + " failed, status=CANCELLED, running compensation");
+                    log.warn(
+                            "Room availability confirmation failed: bookingId={}, roomId={}, requestId={}, reason={}",
+                            saved.getId(),
+                            saved.getRoomId(),
+                            requestId,
+                            ex.getMessage()
+                    );
+
+                    saved.setStatus(BookingStatus.CANCELLED);
+                    return bookingRepository.save(saved);
+                })
+                .subscribeOn(jpaScheduler)
+                .flatMap(cancelled -> {
+                    if (auto && ex instanceof WebClientResponseException.Conflict) {
+                        return Mono.<Booking>error(new ResponseStatusException(HttpStatus.CONFLICT, "No available rooms for selected dates"));
+                    }
+                    if (HotelServiceClient.isRejected(ex)) {
+                        // the hold request never left this service, so there is nothing to release
+                        return Mono.<Booking>error(new ResponseStatusException(
+                                HttpStatus.SERVICE_UNAVAILABLE, "Hotel service is unavailable, try again later"));
+                    }
+
+                    log.info(
+                            "Sending compensation release: bookingId={}, roomId={}, requestId={}",
+                            saved.getId(),
+                            saved.getRoomId(),
+                            requestId
+                    );
+
+                    return hotelClient.release(auto ? null : saved.getRoomId(), hotelReq, authHeader)
+                            .onErrorResume(releaseFailed -> Mono.<Void>fromRunnable(() ->
+                                            compensationQueue.enqueue(saved.getId(), requestId, releaseFailed))
+                                    .subscribeOn(jpaScheduler))
+                            .onErrorResume(queueFailed -> {
+                                log.error("Compensation could not be queued, hold may leak: bookingId={}, requestId={}, reason={}",
+                                        saved.getId(), requestId, queueFailed.getMessage());
+                                return Mono.empty();
+                            })
+                            .then(Mono.fromCallable(() -> {
+                                log.info(
+                                        "Compensation completed, booking cancelled: bookingId={}",
+                                        saved.getId()
+                                );
+                                return cancelled;
+                            }));
+                });
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.booking_service.saga;
+
+import com.example.booking_service.client.HotelServiceClient;
+import com.example.booking_service.compensation.CompensationQueue;
+import com.example.booking_service.dto.HotelAvailabilityRequest;
+import com.example.booking_service.model.Booking;
+import com.example.booking_service.model.BookingStatus;
+import com.example.booking_service.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * All-or-nothing saga for a group of PENDING bookings: holds go to hotel-service in parallel (bounded),
+ * their leases are committed in chunks, and either every booking is confirmed in one transaction or all are
+ * cancelled and every hold that may have been taken is released, also in parallel.
+ */
+@Component
+public class GroupBookingSaga {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupBookingSaga.class);
+
+    private final BookingRepository bookingRepository;
+    private final HotelServiceClient hotelClient;
+    private final Scheduler jpaScheduler;
+    private final CompensationQueue compensationQueue;
+    private final int concurrency;
+    private final int chunkSize;
+    private final long holdTtlSeconds;
+
+    public GroupBookingSaga(BookingRepository bookingRepository,
+                            HotelServiceClient hotelClient,
+                            Scheduler jpaScheduler,
+                            CompensationQueue compensationQueue,
+                            @Value("${app.booking.batch.concurrency:16}") int concurrency,
+                            @Value("${app.compensation.coalesce-size:50}") int chunkSize,
+                            @Value("${app.booking.hold-ttl-seconds:900}") long holdTtlSeconds) {
+        this.bookingRepository = bookingRepository;
+        this.hotelClient = hotelClient;
+        this.jpaScheduler = jpaScheduler;
+        this.compensationQueue = compensationQueue;
+        this.concurrency = concurrency;
+        this.chunkSize = chunkSize;
+        this.holdTtlSeconds = holdTtlSeconds;
+    }
+
+    private record Hold(Booking booking, Long roomId, Throwable error, boolean attempted) {}
+
+    /**
+     * Bookings with a null roomId are auto-selected. Errors out with 409 when any room was unavailable and
+     * with 503 when hotel-service failed or refused a hold; no booking stays confirmed in either case.
+     */
+    public Mono<List<Booking>> run(List<Booking> pending, String authHeader) {
+        AtomicBoolean aborted = new AtomicBoolean();
+
+        return Flux.fromIterable(pending)
+                .flatMap(booking -> hold(booking, authHeader, aborted), concurrency)
+                .collectList()
+                .flatMap(holds -> {
+                    Hold failed = holds.stream().filter(h -> h.error() != null).findFirst().orElse(null);
+                    if (failed != null) {
+                        return cancelAll(holds, failed, authHeader);
+                    }
+                    return commit(holds, authHeader)
+                            .flatMap(lapsed -> lapsed.isEmpty()
+                                    ? confirmAll(holds)
+                                    : cancelAll(holds, lapsed.get(), authHeader));
+                });
+    }
+
+    private Mono<Hold> hold(Booking booking, String authHeader, AtomicBoolean aborted) {
+        return Mono.defer(() -> {
+            // once one item failed the group cannot succeed, so do not send holds that have not started yet
+            if (aborted.get()) {
+                return Mono.just(new Hold(booking, null, null, false));
+            }
+            HotelAvailabilityRequest hotelReq = request(booking);
+            Mono<Long> held = booking.getRoomId() == null
+                    ? hotelClient.autoHold(hotelReq, authHeader)
+                    : hotelClient.confirm(booking.getRoomId(), hotelReq, authHeader).thenReturn(booking.getRoomId());
+
+            return held
+                    .map(roomId -> new Hold(booking, roomId, null, true))
+                    .onErrorResume(ex -> {
+                        aborted.set(true);
+                        log.warn("Group booking item failed: bookingId={}, roomId={}, reason={}",
+                                booking.getId(), booking.getRoomId(), ex.getMessage());
+                        return Mono.just(new Hold(booking, null, ex, true));
+                    });
+        });
+    }
+
+    // clears the leases before anything is confirmed; returns the first hold that lapsed or whose commit failed
+    private Mono<Optional<Hold>> commit(List<Hold> holds, String authHeader) {
+        Map<String, Hold> byRequestId = holds.stream()
+                .collect(Collectors.toMap(h -> requestId(h.booking()), Function.identity()));
+
+        return Flux.fromIterable(chunks(holds))
+                .flatMap(chunk -> hotelClient.commitBatch(
+                                        chunk.stream().map(h -> requestId(h.booking())).toList(), authHeader)
+                                .map(missing -> missing.isEmpty()
+                                        ? List.<Hold>of()
+                                        : List.of(failed(byRequestId.getOrDefault(missing.get(0), chunk.get(0)),
+                                                new ResponseStatusException(HttpStatus.CONFLICT,
+                                                        "Room hold expired before the group was confirmed, nothing was booked"))))
+                                .onErrorResume(ex -> Mono.just(List.of(failed(chunk.get(0), ex)))),
+                        concurrency)
+                .flatMapIterable(Function.identity())
+                .next()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    private static Hold failed(Hold hold, Throwable error) {
+        return new Hold(hold.booking(), hold.roomId(), error, true);
+    }
+
+    private Mono<List<Booking>> confirmAll(List<Hold> holds) {
+        return Mono.fromCallable(() -> {
+                    List<Booking> bookings = new ArrayList<>(holds.size());
+                    for (Hold hold : holds) {
+                        hold.booking().setRoomId(hold.roomId());
+                        hold.booking().setStatus(BookingStatus.CONFIRMED);
+                        bookings.add(hold.booking());
+                    }
+                    List<Booking> confirmed = bookingRepository.saveAll(bookings);
+                    log.info("Group booking confirmed: bookings={}", confirmed.size());
+                    return confirmed;
+                })
+                .subscribeOn(jpaScheduler);
+    }
+
+    private Mono<List<Booking>> cancelAll(List<Hold> holds, Hold failed, String authHeader) {
+        return Mono.fromCallable(() -> {
+                    List<Booking> bookings = holds.stream().map(Hold::booking).toList();
+                    bookings.forEach(b -> b.setStatus(BookingStatus.CANCELLED));
+                    bookingRepository.saveAll(bookings);
+                    log.warn("Group booking cancelled: bookings={}, failedBookingId={}",
+                            bookings.size(), failed.booking().getId());
+                    return bookings;
+                })
+                .subscribeOn(jpaScheduler)
+                .flatMap(cancelled -> release(holds, authHeader))
+                .then(Mono.error(reason(failed)));
+    }
+
+    // releases every hold that may exist, by requestId and in parallel chunks; failed chunks go to the retry queue
+    private Mono<Void> release(List<Hold> holds, String authHeader) {
+        List<Hold> toRelease = holds.stream()
+                .filter(h -> h.attempted() && !HotelServiceClient.isRejected(h.error()))
+                .toList();
+
+        return Flux.fromIterable(chunks(toRelease))
+                .flatMap(chunk -> hotelClient.releaseBatch(
+                                        chunk.stream().map(h -> requestId(h.booking())).toList(), authHeader)
+                                .onErrorResume(releaseFailed -> Mono.<Void>fromRunnable(() -> chunk.forEach(h ->
+                                                compensationQueue.enqueue(h.booking().getId(), requestId(h.booking()), releaseFailed)))
+                                        .subscribeOn(jpaScheduler))
+                                .onErrorResume(queueFailed -> {
+                                    log.error("Group compensation could not be queued, holds may leak: bookings={}, reason={}",
+                                            chunk.size(), queueFailed.getMessage());
+                                    return Mono.empty();
+                                }),
+                        concurrency)
+                .then();
+    }
+
+    private List<List<Hold>> chunks(List<Hold> holds) {
+        List<List<Hold>> chunks = new ArrayList<>();
+        for (int i = 0; i < holds.size(); i += chunkSize) {
+            chunks.add(holds.subList(i, Math.min(i + chunkSize, holds.size())));
+        }
+        return chunks;
+    }
+
+    private static ResponseStatusException reason(Hold failed) {
+        if (failed.error() instanceof ResponseStatusException lapsed) {
+            return lapsed;
+        }
+        Booking booking = failed.booking();
+        if (failed.error() instanceof WebClientResponseException.Conflict) {
+            return new ResponseStatusException(HttpStatus.CONFLICT, booking.getRoomId() == null
+                    ? "No available rooms for " + booking.getStartDate() + ".." + booking.getEndDate() + ", nothing was booked"
+                    : "Room " + booking.getRoomId() + " is not available, nothing was booked");
+        }
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Hotel service failed, nothing was booked, try again later");
+    }
+
+    private HotelAvailabilityRequest request(Booking booking) {
+        HotelAvailabilityRequest request = new HotelAvailabilityRequest(requestId(booking),
+                booking.getStartDate().toString(), booking.getEndDate().toString());
+        request.setHoldTtlSeconds(holdTtlSeconds);
+        return request;
+    }
+
+    private static String requestId(Booking booking) {
+        return booking.getId().toString();
+    }
+}
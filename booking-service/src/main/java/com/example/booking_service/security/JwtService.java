@@ -15,6 +15,8 @@ import java.util.stream.Collectors;
 @Service
 public class JwtService {
 
+    public static final long EXPIRES_IN_SECONDS = 3600;
+
     private final String issuer;
     private final JwtEncoder encoder;
 
@@ -34,7 +36,6 @@ public class JwtService {
 
     public String generateToken(String username, Collection<? extends GrantedAuthority> authorities) {
         Instant now = Instant.now();
-        long expiresInSeconds = 3600;
 
         String scope = authorities.stream()
                 .map(GrantedAuthority::getAuthority)
@@ -43,7 +44,7 @@ public class JwtService {
         JwtClaimsSet claims = JwtClaimsSet.builder()
                 .issuer(issuer)
                 .issuedAt(now)
-                .expiresAt(now.plusSeconds(expiresInSeconds))
+                .expiresAt(now.plusSeconds(EXPIRES_IN_SECONDS))
                 .subject(username)
                 .claim("scope", scope)
                 .build();
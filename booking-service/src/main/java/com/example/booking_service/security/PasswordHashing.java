@@ -0,0 +1,76 @@
+package com.example.booking_service.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt on a dedicated pool sized to the CPU count, off request threads.
+ * The pool's queue is the admission limit: when it is full the call fails fast with 503
+ * instead of piling up logins that would time out anyway.
+ */
+@Component
+public class PasswordHashing implements DisposableBean {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final Counter rejected;
+
+    public PasswordHashing(PasswordEncoder passwordEncoder,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.auth.hash-threads:0}") int threads,
+                           @Value("${app.auth.hash-queue:64}") int queue) {
+        this.passwordEncoder = passwordEncoder;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue),
+                Thread.ofPlatform().name("booking-bcrypt-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(executor, "booking-bcrypt");
+
+        Gauge.builder("auth.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.hash.rejected")
+                .description("Password hashing tasks refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public Mono<String> encode(String raw) {
+        return run(() -> passwordEncoder.encode(raw));
+    }
+
+    public Mono<Boolean> matches(String raw, String encoded) {
+        return run(() -> passwordEncoder.matches(raw, encoded));
+    }
+
+    private <T> Mono<T> run(Callable<T> work) {
+        return Mono.fromCallable(work)
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class, e -> {
+                    rejected.increment();
+                    return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent logins, retry later");
+                });
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
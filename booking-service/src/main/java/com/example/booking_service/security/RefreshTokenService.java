@@ -0,0 +1,95 @@
+package com.example.booking_service.security;
+
+import com.example.booking_service.model.RefreshToken;
+import com.example.booking_service.model.User;
+import com.example.booking_service.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Opaque, single-use refresh tokens. Only the SHA-256 of a token is stored; each refresh consumes the
+ * presented token and issues a new one, so renewing an access token never touches BCrypt.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${app.auth.refresh-ttl-hours:720}") long ttlHours) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    public record Rotation(User user, String refreshToken) {}
+
+    @Transactional
+    public String issue(User user) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(raw));
+        token.setUser(user);
+        token.setExpiresAt(Instant.now().plus(ttl));
+        refreshTokenRepository.save(token);
+        return raw;
+    }
+
+    /** Empty when the token is unknown, expired or was already used. */
+    @Transactional
+    public Optional<Rotation> rotate(String raw) {
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHash(hash(raw));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken token = found.get();
+        if (refreshTokenRepository.deleteByIdReturningCount(token.getId()) == 0
+                || token.getExpiresAt().isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(new Rotation(token.getUser(), issue(token.getUser())));
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        int revoked = refreshTokenRepository.deleteByUserId(userId);
+        if (revoked > 0) {
+            log.info("Refresh tokens revoked: userId={}, count={}", userId, revoked);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.refresh-purge-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private static String hash(String raw) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.booking_service.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -30,7 +33,8 @@ public class SecurityConfig {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/user/register", "/api/user/auth").permitAll()
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .requestMatchers("/api/user/register", "/api/user/auth", "/api/user/refresh").permitAll()
                 .anyRequest().authenticated()
             )
             .oauth2ResourceServer(oauth2 -> oauth2
@@ -47,7 +51,9 @@ public class SecurityConfig {
 
     @Bean
     public JwtDecoder jwtDecoder(@Value("${app.jwt.secret}") String secret,
-                                 @Value("${app.jwt.issuer}") String issuer) {
+                                 @Value("${app.jwt.issuer}") String issuer,
+                                 @Value("${app.jwt.cache.max-size:10000}") long cacheMaxSize,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
 
         var key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
         NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
@@ -55,7 +61,7 @@ public class SecurityConfig {
         OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(issuer);
         decoder.setJwtValidator(withIssuer);
 
-        return decoder;
+        return new CachingJwtDecoder(decoder, cacheMaxSize, meterRegistry.getIfAvailable());
     }
 
     @Bean
@@ -0,0 +1,50 @@
+package com.example.booking_service.security;
+
+import com.example.booking_service.model.User;
+import com.example.booking_service.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Username -> user lookup for authenticated endpoints, so resolving the caller is not a query per request.
+ * Bounded by size and TTL; {@code AdminUserController} evicts on update/delete, the TTL bounds staleness on other replicas.
+ */
+@Component
+public class UserIdentityCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> users;
+
+    public UserIdentityCache(UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.user-cache.max-size:10000}") long maxSize,
+                             @Value("${app.user-cache.ttl-ms:60000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
+    /** Detached snapshot; unknown usernames are not cached. */
+    public Optional<User> findByUsername(String username) {
+        return Optional.ofNullable(users.get(username, key -> userRepository.findByUsername(key).orElse(null)));
+    }
+
+    public void evict(String username) {
+        users.invalidate(username);
+    }
+
+    public void evictAll() {
+        users.invalidateAll();
+    }
+}
@@ -0,0 +1,65 @@
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role     VARCHAR(255) NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_users_username ON users (username);
+
+CREATE TABLE bookings (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    room_id    BIGINT,
+    user_id    BIGINT       NOT NULL,
+    start_date DATE         NOT NULL,
+    end_date   DATE         NOT NULL,
+    status     VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_bookings_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- booking history: where user_id = ? and id > ? order by id
+CREATE INDEX idx_bookings_user_id_id ON bookings (user_id, id);
+
+CREATE TABLE booking_outbox (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    booking_id   BIGINT                      NOT NULL,
+    auto_select  BOOLEAN                     NOT NULL,
+    attempts     INTEGER                     NOT NULL,
+    locked_until TIMESTAMP(6) WITH TIME ZONE,
+    created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_booking_outbox_booking UNIQUE (booking_id)
+);
+
+CREATE TABLE compensation_retries (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    request_id      VARCHAR(255)                NOT NULL,
+    booking_id      BIGINT                      NOT NULL,
+    attempts        INTEGER                     NOT NULL,
+    next_attempt_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_error      VARCHAR(500),
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_compensation_retries_request UNIQUE (request_id)
+);
+
+CREATE TABLE refresh_tokens (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_hash VARCHAR(64)                 NOT NULL,
+    user_id    BIGINT                      NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_refresh_tokens_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE idempotency_keys (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username            VARCHAR(255)                NOT NULL,
+    idem_key            VARCHAR(255)                NOT NULL,
+    request_fingerprint VARCHAR(200)                NOT NULL,
+    status_code         INTEGER,
+    booking_id          BIGINT,
+    reason              VARCHAR(500),
+    created_at          TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_idempotency_keys_user_key UNIQUE (username, idem_key)
+);
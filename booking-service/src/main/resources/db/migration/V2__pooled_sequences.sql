@@ -0,0 +1,4 @@
+-- pooled id generation for users and bookings so Hibernate can batch their inserts;
+-- INCREMENT BY must match allocationSize on the entities
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE bookings_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,2 @@
+-- the retry queue also carries lease commits for confirmed bookings
+ALTER TABLE compensation_retries ADD COLUMN action VARCHAR(16) DEFAULT 'RELEASE' NOT NULL;
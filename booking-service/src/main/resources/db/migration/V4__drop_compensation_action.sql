@@ -0,0 +1,2 @@
+-- lease commits moved back into the saga, the retry queue only carries releases again
+ALTER TABLE compensation_retries DROP COLUMN action;
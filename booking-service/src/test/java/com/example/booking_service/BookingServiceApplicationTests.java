@@ -3,7 +3,7 @@ package com.example.booking_service;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.scheduling.enabled=false")
 class BookingServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,112 @@
+package com.example.booking_service.client;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConfirmHedgingTest {
+
+    static final String CONFIRM = "/api/internal/rooms/1/confirm-availability";
+
+    WireMockServer slow;
+    WireMockServer fast;
+    SimpleMeterRegistry registry;
+    ConfirmHedging hedging;
+
+    @BeforeEach
+    void setup() {
+        slow = new WireMockServer(options().dynamicPort());
+        fast = new WireMockServer(options().dynamicPort());
+        slow.start();
+        fast.start();
+
+        DiscoveryClient discovery = mock(DiscoveryClient.class);
+        when(discovery.getInstances("hotel-service")).thenReturn(List.of(instance(slow), instance(fast)));
+
+        registry = new SimpleMeterRegistry();
+        hedging = new ConfirmHedging(
+                new StaticListableBeanFactory(Map.of("discoveryClient", discovery)).getBeanProvider(DiscoveryClient.class),
+                HttpClient.create(), registry, true, 0.95, 200, 50, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slow.stop();
+        fast.stop();
+    }
+
+    @Test
+    void slowReplica_isOvertakenByHedge() {
+        warmUp();
+        double sent = registry.counter("hotel.client.hedge.sent").count();
+
+        slow.stubFor(post(CONFIRM).willReturn(aResponse().withStatus(200).withFixedDelay(3000)));
+        fast.stubFor(post(CONFIRM).willReturn(aResponse().withStatus(200)));
+
+        // the slow replica alone needs 3s, so finishing inside the block timeout means the fast one answered
+        Mono<Void> call = hedging.confirm(1L, Map.of("requestId", "r-1"), "Bearer t").orElseThrow();
+        call.block(Duration.ofSeconds(2));
+
+        fast.verify(1, postRequestedFor(urlEqualTo(CONFIRM)));
+        // the slow replica only sees a request when it was primary or the hedge target, and either way one hedge was sent
+        long slowRequests = slow.countRequestsMatching(postRequestedFor(urlEqualTo(CONFIRM)).build()).getCount();
+        assertEquals(slowRequests, registry.counter("hotel.client.hedge.sent").count() - sent);
+    }
+
+    @Test
+    void clientError_isNotHedged() {
+        slow.stubFor(post(CONFIRM).willReturn(aResponse().withStatus(409)));
+        fast.stubFor(post(CONFIRM).willReturn(aResponse().withStatus(409)));
+
+        Mono<Void> call = hedging.confirm(1L, Map.of("requestId", "r-2"), "Bearer t").orElseThrow();
+        assertThrows(WebClientResponseException.Conflict.class, () -> call.block(Duration.ofSeconds(2)));
+
+        assertEquals(1, slow.countRequestsMatching(postRequestedFor(urlEqualTo(CONFIRM)).build()).getCount()
+                + fast.countRequestsMatching(postRequestedFor(urlEqualTo(CONFIRM)).build()).getCount());
+        assertEquals(0, registry.counter("hotel.client.hedge.sent").count());
+    }
+
+    @Test
+    void singleReplica_fallsBackToLoadBalancer() {
+        DiscoveryClient discovery = mock(DiscoveryClient.class);
+        when(discovery.getInstances("hotel-service")).thenReturn(List.of(instance(fast)));
+        ConfirmHedging single = new ConfirmHedging(
+                new StaticListableBeanFactory(Map.of("discoveryClient", discovery)).getBeanProvider(DiscoveryClient.class),
+                HttpClient.create(), new SimpleMeterRegistry(), true, 0.95, 200, 50, 1000);
+
+        assertTrue(single.confirm(1L, Map.of(), "Bearer t").isEmpty());
+    }
+
+    // opens connections to both replicas so the measured call does not pay for client start-up
+    private void warmUp() {
+        slow.stubFor(post(CONFIRM).willReturn(aResponse().withStatus(200)));
+        fast.stubFor(post(CONFIRM).willReturn(aResponse().withStatus(200)));
+        for (int i = 0; i < 4; i++) {
+            hedging.confirm(1L, Map.of("requestId", "warm-" + i), "Bearer t").orElseThrow().block(Duration.ofSeconds(10));
+        }
+        slow.resetAll();
+        fast.resetAll();
+    }
+
+    private static ServiceInstance instance(WireMockServer server) {
+        return new DefaultServiceInstance("hotel-" + server.port(), "hotel-service", "localhost", server.port(), false);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.booking_service.controller;
+
+import com.example.booking_service.repository.BookingRepository;
+import com.example.booking_service.repository.RefreshTokenRepository;
+import com.example.booking_service.repository.UserRepository;
+import com.example.booking_service.security.UserIdentityCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(properties = {
+        "hotel.service.url=http://localhost:${wiremock.server.port}",
+        "app.jwt.secret=test-secret-test-secret-test-secret",
+        "app.jwt.issuer=test-issuer",
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "app.scheduling.enabled=false",
+        "app.outbox.poll-ms=3600000",
+        "app.compensation.poll-ms=3600000"
+})
+class AuthControllerIntegrationTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired BookingRepository bookingRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired RefreshTokenRepository refreshTokenRepository;
+    @Autowired UserIdentityCache userCache;
+
+    @BeforeEach
+    @AfterEach
+    void cleanup() {
+        refreshTokenRepository.deleteAll();
+        bookingRepository.deleteAll();
+        userRepository.deleteAll();
+        userCache.evictAll();
+    }
+
+    @Test
+    void register_thenRefresh_rotatesRefreshToken() throws Exception {
+        JsonNode registered = json(call("/api/user/register", """
+                {"username":"vi", "password":"secret"}
+                """).andExpect(status().isOk()));
+        assertEquals(3600, registered.get("expiresIn").asLong());
+
+        String accessToken = registered.get("token").asText();
+        mockMvc.perform(get("/api/bookings").accept(APPLICATION_JSON).header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        String refreshToken = registered.get("refreshToken").asText();
+        JsonNode refreshed = json(call("/api/user/refresh", """
+                {"refreshToken":"%s"}
+                """.formatted(refreshToken)).andExpect(status().isOk()));
+        assertNotEquals(refreshToken, refreshed.get("refreshToken").asText());
+
+        // single use: the consumed token no longer works
+        call("/api/user/refresh", """
+                {"refreshToken":"%s"}
+                """.formatted(refreshToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void auth_withWrongPassword_returns401() throws Exception {
+        call("/api/user/register", """
+                {"username":"vi", "password":"secret"}
+                """).andExpect(status().isOk());
+
+        call("/api/user/auth", """
+                {"username":"vi", "password":"wrong"}
+                """).andExpect(status().isUnauthorized());
+        call("/api/user/auth", """
+                {"username":"nobody", "password":"secret"}
+                """).andExpect(status().isUnauthorized());
+        call("/api/user/auth", """
+                {"username":"vi", "password":"secret"}
+                """).andExpect(status().isOk()).andExpect(jsonPath("$.refreshToken").isNotEmpty());
+    }
+
+    @Test
+    void register_duplicateUsername_returns409() throws Exception {
+        call("/api/user/register", """
+                {"username":"vi", "password":"secret"}
+                """).andExpect(status().isOk());
+        call("/api/user/register", """
+                {"username":"vi", "password":"other"}
+                """).andExpect(status().isConflict());
+    }
+
+    private ResultActions call(String path, String body) throws Exception {
+        MvcResult pending = mockMvc.perform(post(path).contentType(APPLICATION_JSON).content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(pending));
+    }
+
+    private JsonNode json(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+}
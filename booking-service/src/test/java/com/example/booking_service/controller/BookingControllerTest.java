@@ -1,10 +1,24 @@
 package com.example.booking_service.controller;
 
+import com.example.booking_service.api.NdjsonWriter;
+import com.example.booking_service.compensation.CompensationQueue;
+import com.example.booking_service.client.HotelServiceClient;
+import com.example.booking_service.history.BookingHistory;
+import com.example.booking_service.idempotency.BookingIdempotency;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import com.example.booking_service.model.Booking;
+import com.example.booking_service.model.BookingStatus;
 import com.example.booking_service.model.User;
+import com.example.booking_service.outbox.BookingOutboxService;
+import com.example.booking_service.outbox.BookingStatusStream;
 import com.example.booking_service.repository.BookingRepository;
 import com.example.booking_service.repository.UserRepository;
+import com.example.booking_service.saga.BookingSaga;
+import com.example.booking_service.saga.GroupBookingSaga;
 import com.example.booking_service.security.SecurityConfig;
+import com.example.booking_service.security.UserIdentityCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -13,18 +27,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
@@ -36,43 +51,38 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(controllers = BookingController.class)
 @AutoConfigureMockMvc(addFilters = true)
-@Import({SecurityConfig.class})
+@Import({SecurityConfig.class, BookingSaga.class})
 class BookingControllerTest {
 
     @Autowired MockMvc mockMvc;
 
     @Autowired BookingRepository bookingRepository;
     @Autowired UserRepository userRepository;
-    @Autowired WebClient webClient;
-
-    WebClient.RequestBodyUriSpec postSpec;
-    WebClient.RequestBodySpec postBodySpec;
-    WebClient.RequestHeadersSpec postHeadersSpec;
-    WebClient.ResponseSpec postRespSpec;
-
-    WebClient.RequestHeadersUriSpec getSpec;
-    WebClient.RequestHeadersSpec getHeadersSpec;
-    WebClient.ResponseSpec getRespSpec;
+    @Autowired HotelServiceClient hotelClient;
+    @Autowired BookingOutboxService outboxService;
 
     @TestConfiguration
     static class TestConfig {
         @Bean BookingRepository bookingRepository() { return Mockito.mock(BookingRepository.class); }
         @Bean UserRepository userRepository() { return Mockito.mock(UserRepository.class); }
-        @Bean WebClient webClient() { return Mockito.mock(WebClient.class); }
+        // ttl 0 disables caching, so every test sees its own repository stubs
+        @Bean UserIdentityCache userIdentityCache(UserRepository userRepository) {
+            return new UserIdentityCache(userRepository, new SimpleMeterRegistry(), 100, 0);
+        }
+        @Bean HotelServiceClient hotelServiceClient() { return Mockito.mock(HotelServiceClient.class); }
+        @Bean NdjsonWriter ndjsonWriter() { return Mockito.mock(NdjsonWriter.class); }
+        @Bean Scheduler jpaScheduler() { return Schedulers.immediate(); }
+        @Bean BookingOutboxService bookingOutboxService() { return Mockito.mock(BookingOutboxService.class); }
+        @Bean BookingStatusStream bookingStatusStream() { return Mockito.mock(BookingStatusStream.class); }
+        @Bean CompensationQueue compensationQueue() { return Mockito.mock(CompensationQueue.class); }
+        @Bean BookingIdempotency bookingIdempotency() { return Mockito.mock(BookingIdempotency.class); }
+        @Bean GroupBookingSaga groupBookingSaga() { return Mockito.mock(GroupBookingSaga.class); }
+        @Bean BookingHistory bookingHistory() { return Mockito.mock(BookingHistory.class); }
     }
 
     @BeforeEach
-    void setupWebClientMocks() {
-        getSpec = Mockito.mock(WebClient.RequestHeadersUriSpec.class);
-        getHeadersSpec = Mockito.mock(WebClient.RequestHeadersSpec.class);
-        getRespSpec = Mockito.mock(WebClient.ResponseSpec.class);
-
-        postSpec = Mockito.mock(WebClient.RequestBodyUriSpec.class);
-        postBodySpec = Mockito.mock(WebClient.RequestBodySpec.class);
-        postHeadersSpec = Mockito.mock(WebClient.RequestHeadersSpec.class);
-        postRespSpec = Mockito.mock(WebClient.ResponseSpec.class);
-
-        Mockito.reset(webClient, bookingRepository, userRepository);
+    void resetMocks() {
+        Mockito.reset(hotelClient, bookingRepository, userRepository, outboxService);
     }
 
     @Test
@@ -104,24 +114,8 @@ class BookingControllerTest {
         u.setRole("USER");
         when(userRepository.findByUsername("vi")).thenReturn(Optional.of(u));
 
-        BookingController.RoomDto roomDto = new BookingController.RoomDto();
-        roomDto.setId(10L);
-        roomDto.setNumber("101");
-
-        when(webClient.get()).thenReturn(getSpec);
-        when(getSpec.uri(eq("http://hotel-service/api/rooms/recommend"))).thenReturn(getHeadersSpec);
-        when(getHeadersSpec.header(eq("Authorization"), anyString())).thenReturn(getHeadersSpec);
-        when(getHeadersSpec.retrieve()).thenReturn(getRespSpec);
-        when(getRespSpec.bodyToMono(eq(BookingController.RoomDto[].class)))
-                .thenReturn(Mono.just(new BookingController.RoomDto[]{roomDto}));
-
-        when(webClient.post()).thenReturn(postSpec);
-        when(postSpec.uri(startsWith("http://hotel-service/api/internal/rooms/"))).thenReturn(postBodySpec);
-        when(postBodySpec.contentType(any())).thenReturn(postBodySpec);
-        when(postBodySpec.bodyValue(any())).thenReturn(postHeadersSpec);
-        when(postHeadersSpec.header(eq("Authorization"), anyString())).thenReturn(postHeadersSpec);
-        when(postHeadersSpec.retrieve()).thenReturn(postRespSpec);
-        when(postRespSpec.toBodilessEntity()).thenReturn(Mono.just(ResponseEntity.ok().build()));
+        when(hotelClient.autoHold(any(), eq("TestAuth"))).thenReturn(Mono.just(10L));
+        when(hotelClient.commitBatch(anyList(), eq("TestAuth"))).thenReturn(Mono.just(List.of()));
 
         when(bookingRepository.save(any(Booking.class)))
                 .thenAnswer(inv -> {
@@ -134,18 +128,22 @@ class BookingControllerTest {
             {"autoSelect":true, "startDate":"2026-04-01", "endDate":"2026-04-03"}
         """;
 
-            mockMvc.perform(post("/api/booking")
-                            .contentType(APPLICATION_JSON)
-                            .header("Authorization", "TestAuth")
-                            .content(body)
-                            .with(user("vi").roles("USER")))
+        MvcResult pending = mockMvc.perform(post("/api/booking")
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .content(body)
+                        .with(user("vi").roles("USER")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(777)))
                 .andExpect(jsonPath("$.roomId", is(10)))
                 .andExpect(jsonPath("$.status", is("CONFIRMED")));
 
-        verify(webClient, atLeastOnce()).post();
-        verify(webClient, atLeastOnce()).get();
+        verify(hotelClient, times(1)).autoHold(any(), eq("TestAuth"));
+        verify(hotelClient, never()).confirm(any(), any(), any());
     }
 
     @Test
@@ -195,28 +193,9 @@ class BookingControllerTest {
         u.setRole("USER");
         when(userRepository.findByUsername("vi")).thenReturn(Optional.of(u));
 
-        BookingController.RoomDto roomDto = new BookingController.RoomDto();
-        roomDto.setId(10L);
-        roomDto.setNumber("101");
-
-        when(webClient.get()).thenReturn(getSpec);
-        when(getSpec.uri(anyString())).thenReturn(getHeadersSpec);
-        when(getHeadersSpec.header(eq("Authorization"), anyString()))
-                .thenReturn(getHeadersSpec);
-        when(getHeadersSpec.retrieve()).thenReturn(getRespSpec);
-        when(getRespSpec.bodyToMono(eq(BookingController.RoomDto[].class)))
-                .thenReturn(Mono.just(new BookingController.RoomDto[]{roomDto}));
-
-        when(webClient.post()).thenReturn(postSpec);
-        when(postSpec.uri(anyString())).thenReturn(postBodySpec);
-        when(postBodySpec.contentType(any())).thenReturn(postBodySpec);
-        when(postBodySpec.bodyValue(any())).thenReturn(postHeadersSpec);
-        when(postHeadersSpec.header(eq("Authorization"), anyString())).thenReturn(postHeadersSpec);
-        when(postHeadersSpec.retrieve()).thenReturn(postRespSpec);
-
-        when(postRespSpec.toBodilessEntity())
-                .thenReturn(Mono.error(new RuntimeException("hotel down")))
-                .thenReturn(Mono.just(ResponseEntity.ok().build()));
+        when(hotelClient.confirm(eq(10L), any(), anyString()))
+                .thenReturn(Mono.error(new RuntimeException("hotel down")));
+        when(hotelClient.release(eq(10L), any(), anyString())).thenReturn(Mono.empty());
 
         when(bookingRepository.save(any(Booking.class)))
                 .thenAnswer(inv -> {
@@ -229,17 +208,119 @@ class BookingControllerTest {
             {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
         """;
 
-        mockMvc.perform(post("/api/booking")
+        MvcResult pending = mockMvc.perform(post("/api/booking")
                         .contentType(APPLICATION_JSON)
                         .header("Authorization", "TestAuth")
                         .content(body)
                         .with(user("vi").roles("USER")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(999)))
                 .andExpect(jsonPath("$.roomId", is(10)))
                 .andExpect(jsonPath("$.status", is("CANCELLED")));
 
         verify(bookingRepository, atLeast(2)).save(any(Booking.class));
-        verify(webClient, atLeast(2)).post();
+        verify(hotelClient, times(1)).confirm(eq(10L), any(), anyString());
+        verify(hotelClient, times(1)).release(eq(10L), any(), anyString());
+    }
+
+    @Test
+    void createBooking_respondAsync_shouldReturn202_andEnqueueWithoutCallingHotel() throws Exception {
+        User u = new User();
+        u.setId(1L);
+        u.setUsername("vi");
+        u.setRole("USER");
+        when(userRepository.findByUsername("vi")).thenReturn(Optional.of(u));
+
+        when(outboxService.enqueue(any(Booking.class), eq(true)))
+                .thenAnswer(inv -> {
+                    Booking b = inv.getArgument(0);
+                    b.setId(555L);
+                    return b;
+                });
+
+        String body = """
+            {"autoSelect":true, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+        """;
+
+        MvcResult pending = mockMvc.perform(post("/api/booking")
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .header("Prefer", "respond-async")
+                        .content(body)
+                        .with(user("vi").roles("USER")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/booking/555"))
+                .andExpect(jsonPath("$.id", is(555)))
+                .andExpect(jsonPath("$.status", is(BookingStatus.PENDING.name())));
+
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verifyNoInteractions(hotelClient);
+    }
+
+    @Test
+    void createBooking_shouldReturn503_withoutRelease_whenCircuitOpen() throws Exception {
+        User u = new User();
+        u.setId(1L);
+        u.setUsername("vi");
+        u.setRole("USER");
+        when(userRepository.findByUsername("vi")).thenReturn(Optional.of(u));
+
+        when(hotelClient.confirm(eq(10L), any(), anyString()))
+                .thenReturn(Mono.error(CallNotPermittedException.createCallNotPermittedException(
+                        CircuitBreaker.ofDefaults("hotel-service"))));
+
+        when(bookingRepository.save(any(Booking.class)))
+                .thenAnswer(inv -> {
+                    Booking b = inv.getArgument(0);
+                    if (b.getId() == null) b.setId(321L);
+                    return b;
+                });
+
+        String body = """
+            {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+        """;
+
+        MvcResult pending = mockMvc.perform(post("/api/booking")
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .content(body)
+                        .with(user("vi").roles("USER")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isServiceUnavailable());
+
+        verify(bookingRepository, atLeastOnce()).save(argThat(b -> b.getStatus() == BookingStatus.CANCELLED));
+        verify(hotelClient, never()).release(any(), any(), any());
+    }
+
+    @Test
+    void createBatch_shouldReturn400_whenItemsOverlapSameRoom() throws Exception {
+        String body = """
+                {"items":[
+                  {"roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-05"},
+                  {"roomId":11, "startDate":"2026-04-01", "endDate":"2026-04-05"},
+                  {"roomId":10, "startDate":"2026-04-04", "endDate":"2026-04-06"}
+                ]}
+                """;
+
+        mockMvc.perform(post("/api/bookings/batch")
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .content(body)
+                        .with(user("vi").roles("USER")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("items[2]: overlaps items[0] for roomId 10"));
+
+        verifyNoInteractions(bookingRepository, hotelClient);
     }
 }
@@ -3,8 +3,16 @@ package com.example.booking_service.controller;
 import com.example.booking_service.model.Booking;
 import com.example.booking_service.model.BookingStatus;
 import com.example.booking_service.model.User;
+import com.example.booking_service.compensation.CompensationRetryWorker;
+import com.example.booking_service.idempotency.BookingIdempotency;
+import com.example.booking_service.model.IdempotencyKey;
+import com.example.booking_service.outbox.BookingOutboxDispatcher;
+import com.example.booking_service.repository.BookingOutboxRepository;
 import com.example.booking_service.repository.BookingRepository;
+import com.example.booking_service.repository.CompensationRetryRepository;
+import com.example.booking_service.repository.IdempotencyKeyRepository;
 import com.example.booking_service.repository.UserRepository;
+import com.example.booking_service.security.UserIdentityCache;
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 
@@ -22,6 +30,7 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -32,6 +41,7 @@ import java.util.concurrent.*;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -42,7 +52,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         "app.jwt.secret=test-secret-test-secret-test-secret",
         "app.jwt.issuer=test-issuer",
         "eureka.client.enabled=false",
-        "spring.cloud.discovery.enabled=false"
+        "spring.cloud.discovery.enabled=false",
+        "app.scheduling.enabled=false"
 })
 class BookingIntegrationTest {
 
@@ -58,14 +69,26 @@ class BookingIntegrationTest {
     @Autowired MockMvc mockMvc;
     @Autowired BookingRepository bookingRepository;
     @Autowired UserRepository userRepository;
+    @Autowired UserIdentityCache userCache;
+    @Autowired BookingOutboxRepository outboxRepository;
+    @Autowired BookingOutboxDispatcher outboxDispatcher;
+    @Autowired CompensationRetryRepository retryRepository;
+    @Autowired CompensationRetryWorker retryWorker;
+    @Autowired BookingIdempotency idempotency;
+    @Autowired IdempotencyKeyRepository keyRepository;
 
     @BeforeEach
     void setup() {
         resetAllRequests();
         resetToDefault();
+        stubFor(post(urlEqualTo("/api/internal/rooms/commit-batch"))
+                .willReturn(okJson("{\"committed\":1,\"missing\":[]}")));
 
+        outboxRepository.deleteAll();
+        retryRepository.deleteAll();
         bookingRepository.deleteAll();
         userRepository.deleteAll();
+        userCache.evictAll();
 
         User u = new User();
         u.setUsername("vi");
@@ -101,13 +124,15 @@ class BookingIntegrationTest {
 
         Callable<Integer> call = () -> {
             start.await(2, TimeUnit.SECONDS);
-            return mockMvc.perform(
+            MvcResult pending = mockMvc.perform(
                     org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/booking")
                         .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
                         .contentType(APPLICATION_JSON)
                         .header("Authorization", "TestAuth")
                         .content(body)
                     )
+                    .andReturn();
+            return mockMvc.perform(asyncDispatch(pending))
                     .andReturn()
                     .getResponse()
                     .getStatus();
@@ -152,11 +177,15 @@ class BookingIntegrationTest {
           {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
         """;
 
-        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/booking")
+        MvcResult pending = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/booking")
                         .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
                         .contentType(APPLICATION_JSON)
                         .header("Authorization", "TestAuth")
                         .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.roomId", is(10)))
                 .andExpect(jsonPath("$.status", is("CANCELLED")));
@@ -164,4 +193,452 @@ class BookingIntegrationTest {
         verify(3, postRequestedFor(urlEqualTo("/api/internal/rooms/10/confirm-availability")));
         verify(1, postRequestedFor(urlEqualTo("/api/internal/rooms/10/release")));
     }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void respondAsync_returns202_thenDispatcherConfirms() throws Exception {
+
+        stubFor(post(urlEqualTo("/api/internal/rooms/10/confirm-availability"))
+                .willReturn(aResponse().withStatus(200)));
+
+        String body = """
+          {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+        """;
+
+        MvcResult pending = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/booking")
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .header("Prefer", "respond-async")
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status", is("PENDING")));
+
+        assertEquals(1, outboxRepository.count());
+        verify(0, postRequestedFor(urlEqualTo("/api/internal/rooms/10/confirm-availability")));
+
+        outboxDispatcher.drain();
+
+        List<Booking> all = bookingRepository.findAll();
+        assertEquals(1, all.size());
+        assertEquals(BookingStatus.CONFIRMED, all.get(0).getStatus());
+        assertEquals(0, outboxRepository.count());
+        verify(1, postRequestedFor(urlEqualTo("/api/internal/rooms/10/confirm-availability"))
+                .withHeader("Authorization", matching("Bearer .+")));
+
+        MvcResult events = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/api/booking/" + all.get(0).getId() + "/events")
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(events))
+                .andExpect(status().isOk())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("\"status\":\"CONFIRMED\"")));
+    }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void failedCompensation_isQueued_andReleasedInOneBatchLater() throws Exception {
+
+        stubFor(post(urlEqualTo("/api/internal/rooms/10/confirm-availability"))
+                .willReturn(aResponse().withStatus(409)));
+        stubFor(post(urlEqualTo("/api/internal/rooms/10/release"))
+                .willReturn(aResponse().withStatus(503)));
+        stubFor(post(urlEqualTo("/api/internal/rooms/release-batch"))
+                .willReturn(aResponse().withStatus(200)));
+
+        String body = """
+          {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+        """;
+
+        for (int i = 0; i < 2; i++) {
+            MvcResult pending = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/booking")
+                            .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
+                            .contentType(APPLICATION_JSON)
+                            .header("Authorization", "TestAuth")
+                            .content(body))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(pending))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status", is("CANCELLED")));
+        }
+
+        assertEquals(2, retryRepository.count());
+
+        retryWorker.retryDue(java.time.Instant.now().plusSeconds(1));
+
+        assertEquals(0, retryRepository.count());
+        verify(1, postRequestedFor(urlEqualTo("/api/internal/rooms/release-batch")));
+    }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void confirmedBooking_holdIsLeased_andCommittedBeforeConfirming() throws Exception {
+
+        stubFor(post(urlEqualTo("/api/internal/rooms/10/confirm-availability"))
+                .willReturn(aResponse().withStatus(200)));
+
+        String body = """
+          {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+        """;
+
+        MvcResult pending = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/booking")
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("CONFIRMED")));
+
+        String requestId = bookingRepository.findAll().get(0).getId().toString();
+        verify(postRequestedFor(urlEqualTo("/api/internal/rooms/10/confirm-availability"))
+                .withRequestBody(matchingJsonPath("$.holdTtlSeconds", equalTo("900"))));
+        verify(1, postRequestedFor(urlEqualTo("/api/internal/rooms/commit-batch"))
+                .withRequestBody(matchingJsonPath("$.requestIds[0]", equalTo(requestId))));
+        assertEquals(0, retryRepository.count());
+    }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void holdLapsedBeforeCommit_bookingIsCancelled_notConfirmed() throws Exception {
+
+        stubFor(post(urlEqualTo("/api/internal/rooms/10/confirm-availability"))
+                .willReturn(aResponse().withStatus(200)));
+        // hotel-service swept the lease before the commit arrived
+        stubFor(post(urlEqualTo("/api/internal/rooms/commit-batch"))
+                .willReturn(okJson("{\"committed\":0,\"missing\":[\"lapsed\"]}")));
+        stubFor(post(urlEqualTo("/api/internal/rooms/10/release"))
+                .willReturn(aResponse().withStatus(200)));
+
+        String body = """
+          {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+        """;
+
+        MvcResult pending = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/booking")
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("CANCELLED")));
+
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findAll().get(0).getStatus());
+        verify(1, postRequestedFor(urlEqualTo("/api/internal/rooms/10/release")));
+    }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void repeatedIdempotencyKey_replaysOriginalBooking_withoutSecondSaga() throws Exception {
+
+        stubFor(post(urlEqualTo("/api/internal/rooms/10/confirm-availability"))
+                .willReturn(aResponse().withStatus(200)));
+
+        String key = java.util.UUID.randomUUID().toString();
+        String body = """
+          {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+        """;
+
+        MvcResult first = idempotentCreate(key, body);
+        MvcResult second = idempotentCreate(key, body);
+
+        assertEquals(200, first.getResponse().getStatus());
+        assertEquals(200, second.getResponse().getStatus());
+        assertEquals("true", second.getResponse().getHeader("Idempotent-Replayed"));
+        assertEquals(bookingId(first), bookingId(second));
+        assertEquals(1, bookingRepository.count());
+        verify(1, postRequestedFor(urlEqualTo("/api/internal/rooms/10/confirm-availability")));
+
+        String otherBody = body.replace("\"roomId\":10", "\"roomId\":11");
+        assertEquals(422, idempotentCreate(key, otherBody).getResponse().getStatus());
+    }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void concurrentIdempotencyKey_duplicatesWaitForInFlightBooking() throws Exception {
+
+        stubFor(post(urlEqualTo("/api/internal/rooms/10/confirm-availability"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(300)));
+
+        String key = java.util.UUID.randomUUID().toString();
+        String body = """
+          {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+        """;
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MvcResult>> calls = new java.util.ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            calls.add(pool.submit(() -> {
+                start.await(2, TimeUnit.SECONDS);
+                return idempotentCreate(key, body);
+            }));
+        }
+        start.countDown();
+
+        java.util.Set<Integer> ids = new java.util.HashSet<>();
+        for (Future<MvcResult> call : calls) {
+            MvcResult result = call.get(5, TimeUnit.SECONDS);
+            assertEquals(200, result.getResponse().getStatus());
+            ids.add(bookingId(result));
+        }
+        pool.shutdown();
+
+        assertEquals(1, ids.size());
+        assertEquals(1, bookingRepository.count());
+        verify(1, postRequestedFor(urlEqualTo("/api/internal/rooms/10/confirm-availability")));
+    }
+
+    @Test
+    void cancelledIdempotentRequest_keepsRunning_andRetryGetsItsOutcome() throws Exception {
+        String key = java.util.UUID.randomUUID().toString();
+        reactor.core.publisher.Sinks.One<org.springframework.http.ResponseEntity<Booking>> saga =
+                reactor.core.publisher.Sinks.one();
+        Booking booked = new Booking();
+        booked.setId(42L);
+
+        reactor.core.Disposable request = idempotency
+                .execute("vi", key, "fp", saga::asMono, outcome -> reactor.core.publisher.Mono.empty())
+                .subscribe();
+        awaitTrue(() -> keyRepository.findByUsernameAndIdemKey("vi", key).isPresent());
+
+        // the client times out mid-saga; the saga still finishes and records its outcome
+        request.dispose();
+        saga.tryEmitValue(org.springframework.http.ResponseEntity.ok(booked));
+
+        awaitTrue(() -> keyRepository.findByUsernameAndIdemKey("vi", key)
+                .map(k -> k.getStatusCode() != null).orElse(false));
+        assertEquals(42L, keyRepository.findByUsernameAndIdemKey("vi", key).orElseThrow().getBookingId());
+
+        Long replayed = idempotency
+                .execute("vi", key, "fp", () -> reactor.core.publisher.Mono.error(new AssertionError("ran twice")),
+                        outcome -> reactor.core.publisher.Mono.just(org.springframework.http.ResponseEntity.ok(booked)))
+                .map(r -> r.getBody().getId())
+                .block(java.time.Duration.ofSeconds(5));
+        assertEquals(42L, replayed);
+    }
+
+    @Test
+    void duplicateOfAClaimOnAnotherInstance_waitsForItsOutcome() throws Exception {
+        String key = java.util.UUID.randomUUID().toString();
+        Booking booked = new Booking();
+        booked.setId(7L);
+
+        // claimed by another instance a moment ago, no outcome yet
+        IdempotencyKey claimed = new IdempotencyKey();
+        claimed.setUsername("vi");
+        claimed.setIdemKey(key);
+        claimed.setRequestFingerprint("fp");
+        Long rowId = keyRepository.save(claimed).getId();
+
+        CompletableFuture<org.springframework.http.ResponseEntity<Booking>> duplicate = idempotency
+                .execute("vi", key, "fp", () -> reactor.core.publisher.Mono.error(new AssertionError("ran twice")),
+                        outcome -> reactor.core.publisher.Mono.just(org.springframework.http.ResponseEntity.ok(booked)))
+                .toFuture();
+
+        Thread.sleep(300);
+        assertFalse(duplicate.isDone());
+        keyRepository.complete(rowId, 200, 7L, null);
+
+        assertEquals(7L, duplicate.get(5, TimeUnit.SECONDS).getBody().getId());
+    }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void staleIdempotencyClaim_isTakenOverByRetry() throws Exception {
+
+        stubFor(post(urlEqualTo("/api/internal/rooms/10/confirm-availability"))
+                .willReturn(aResponse().withStatus(200)));
+
+        String key = java.util.UUID.randomUUID().toString();
+        String body = """
+          {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+        """;
+
+        // left behind by an instance that died mid-request: claimed, never completed
+        IdempotencyKey abandoned = new IdempotencyKey();
+        abandoned.setUsername("vi");
+        abandoned.setIdemKey(key);
+        abandoned.setRequestFingerprint("lost");
+        abandoned.setCreatedAt(java.time.Instant.now().minus(java.time.Duration.ofMinutes(5)));
+        keyRepository.save(abandoned);
+
+        MvcResult retry = idempotentCreate(key, body);
+
+        assertEquals(200, retry.getResponse().getStatus());
+        assertEquals(1, bookingRepository.count());
+        assertEquals(200, keyRepository.findByUsernameAndIdemKey("vi", key).orElseThrow().getStatusCode());
+    }
+
+    private static void awaitTrue(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(20);
+        }
+    }
+
+    private MvcResult idempotentCreate(String key, String body) throws Exception {
+        MvcResult pending = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/booking")
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .header("Idempotency-Key", key)
+                        .content(body))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(pending)).andReturn();
+    }
+
+    private static Integer bookingId(MvcResult result) throws Exception {
+        return com.jayway.jsonpath.JsonPath.read(result.getResponse().getContentAsString(), "$.id");
+    }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void batchBooking_confirmsAllRoomsInParallel() throws Exception {
+
+        stubFor(post(urlPathMatching("/api/internal/rooms/\\d+/confirm-availability"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(200)));
+
+        StringBuilder items = new StringBuilder();
+        for (int room = 1; room <= 20; room++) {
+            items.append(room == 1 ? "" : ",").append("""
+                    {"roomId":%d, "startDate":"2026-04-01", "endDate":"2026-04-03"}""".formatted(room));
+        }
+
+        long started = System.nanoTime();
+        MvcResult pending = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/bookings/batch")
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .content("{\"items\":[" + items + "]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(20)));
+        long tookMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(20, bookingRepository.findAll().stream()
+                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED)
+                .count());
+        // 20 holds of 200ms each would take 4s one by one
+        assertTrue(tookMs < 2000, "group booking took " + tookMs + "ms");
+    }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void batchBooking_oneRoomTaken_cancelsAll_andReleasesHolds() throws Exception {
+
+        stubFor(post(urlPathMatching("/api/internal/rooms/\\d+/confirm-availability"))
+                .willReturn(aResponse().withStatus(200)));
+        stubFor(post(urlEqualTo("/api/internal/rooms/12/confirm-availability"))
+                .willReturn(aResponse().withStatus(409)));
+        stubFor(post(urlEqualTo("/api/internal/rooms/release-batch"))
+                .willReturn(aResponse().withStatus(200)));
+
+        String body = """
+          {"items":[
+            {"roomId":11, "startDate":"2026-04-01", "endDate":"2026-04-03"},
+            {"roomId":12, "startDate":"2026-04-01", "endDate":"2026-04-03"},
+            {"roomId":13, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+          ]}
+        """;
+
+        MvcResult pending = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/bookings/batch")
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isConflict());
+
+        List<Booking> all = bookingRepository.findAll();
+        assertEquals(3, all.size());
+        assertTrue(all.stream().allMatch(b -> b.getStatus() == BookingStatus.CANCELLED));
+        verify(1, postRequestedFor(urlEqualTo("/api/internal/rooms/release-batch")));
+    }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void batchBooking_holdLapsedBeforeCommit_cancelsAll() throws Exception {
+
+        stubFor(post(urlPathMatching("/api/internal/rooms/\\d+/confirm-availability"))
+                .willReturn(aResponse().withStatus(200)));
+        stubFor(post(urlEqualTo("/api/internal/rooms/commit-batch"))
+                .willReturn(okJson("{\"committed\":1,\"missing\":[\"lapsed\"]}")));
+        stubFor(post(urlEqualTo("/api/internal/rooms/release-batch"))
+                .willReturn(aResponse().withStatus(200)));
+
+        String body = """
+          {"items":[
+            {"roomId":11, "startDate":"2026-04-01", "endDate":"2026-04-03"},
+            {"roomId":12, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+          ]}
+        """;
+
+        MvcResult pending = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/bookings/batch")
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isConflict());
+
+        assertTrue(bookingRepository.findAll().stream().allMatch(b -> b.getStatus() == BookingStatus.CANCELLED));
+        verify(1, postRequestedFor(urlEqualTo("/api/internal/rooms/commit-batch")));
+        verify(1, postRequestedFor(urlEqualTo("/api/internal/rooms/release-batch")));
+    }
+
+    @Test
+    @WithMockUser(username = "vi", roles = "USER")
+    void bookingHistory_returnsProjection_andSeesNewBookingRightAway() throws Exception {
+
+        stubFor(post(urlEqualTo("/api/internal/rooms/10/confirm-availability"))
+                .willReturn(aResponse().withStatus(200)));
+
+        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/api/bookings")
+                        .accept(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(0)));
+
+        String body = """
+          {"autoSelect":false, "roomId":10, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+        """;
+        MvcResult pending = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/api/booking")
+                        .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user("vi").roles("USER"))
+                        .contentType(APPLICATION_JSON)
+                        .header("Authorization", "TestAuth")
+                        .content(body))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isOk());
+
+        // the cached empty page was evicted by the create
+        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/api/bookings")
+                        .accept(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].status", is("CONFIRMED")))
+                .andExpect(jsonPath("$[0].user").doesNotExist());
+    }
 }
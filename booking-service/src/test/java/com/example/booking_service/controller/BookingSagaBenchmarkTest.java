@@ -0,0 +1,184 @@
+package com.example.booking_service.controller;
+
+import com.example.booking_service.model.Booking;
+import com.example.booking_service.model.BookingStatus;
+import com.example.booking_service.model.User;
+import com.example.booking_service.repository.BookingRepository;
+import com.example.booking_service.repository.UserRepository;
+import com.example.booking_service.security.JwtService;
+import com.example.booking_service.security.UserIdentityCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput of the booking saga against a slow hotel-service.
+ * Run with {@code mvn test -Dtest=BookingSagaBenchmarkTest -Dbenchmark=true}.
+ *
+ * Both variants run on the same Tomcat pool in the same JVM: the reactive endpoint, and the blocking
+ * shape it replaced, where the worker thread waits for the whole saga ({@link BlockingBookingController}).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(properties = {
+        "hotel.service.url=http://localhost:${wiremock.server.port}",
+        "app.jwt.secret=test-secret-test-secret-test-secret",
+        "app.jwt.issuer=test-issuer",
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "app.scheduling.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.threads.virtual.enabled=false",
+        "server.tomcat.threads.max=" + BookingSagaBenchmarkTest.TOMCAT_THREADS
+})
+class BookingSagaBenchmarkTest {
+
+    static final int TOMCAT_THREADS = 16;
+    static final int HOTEL_LATENCY_MS = 200;
+    static final int BOOKINGS = 512;
+
+    @TestConfiguration
+    static class BenchmarkWebClientConfig {
+        @Bean
+        @Primary
+        WebClient benchmarkWebClient() {
+            ConnectionProvider pool = ConnectionProvider.builder("benchmark")
+                    .maxConnections(BOOKINGS)
+                    .pendingAcquireMaxCount(-1)
+                    .build();
+            return WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool)))
+                    .build();
+        }
+
+        @Bean
+        BlockingBookingController blockingBookingController(BookingController bookings) {
+            return new BlockingBookingController(bookings);
+        }
+    }
+
+    @RestController
+    static class BlockingBookingController {
+
+        private final BookingController bookings;
+
+        BlockingBookingController(BookingController bookings) {
+            this.bookings = bookings;
+        }
+
+        // the pre-reactive shape: the Tomcat worker is held until the hotel-service call has answered
+        @PostMapping("/bench/booking-blocking")
+        ResponseEntity<Booking> create(@RequestBody BookingController.CreateBookingRequest request,
+                                       @RequestHeader("Authorization") String authHeader,
+                                       Authentication authentication) {
+            return bookings.create(request, authHeader, null, null, authentication).block();
+        }
+    }
+
+    @LocalServerPort int port;
+    @Autowired BookingRepository bookingRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired UserIdentityCache userCache;
+    @Autowired JwtService jwtService;
+
+    String token;
+
+    @BeforeEach
+    void setup() {
+        bookingRepository.deleteAll();
+        userRepository.deleteAll();
+        userCache.evictAll();
+
+        User u = new User();
+        u.setUsername("bench");
+        u.setPassword("x");
+        u.setRole("USER");
+        userRepository.save(u);
+
+        token = jwtService.generateToken("bench", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        stubFor(post(urlPathMatching("/api/internal/rooms/\\d+/confirm-availability"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(HOTEL_LATENCY_MS)));
+        stubFor(post(urlEqualTo("/api/internal/rooms/commit-batch"))
+                .willReturn(okJson("{\"committed\":1,\"missing\":[]}")));
+    }
+
+    @Test
+    void reactiveSaga_outperformsBlockingSaga_onSameThreadPool() throws Exception {
+        java.net.http.HttpClient client = java.net.http.HttpClient.newHttpClient();
+
+        // warm-up of both paths: JIT, connection pools, Hibernate statement caches
+        send(client, "/api/booking", 0).get(10, TimeUnit.SECONDS);
+        send(client, "/bench/booking-blocking", 0).get(10, TimeUnit.SECONDS);
+
+        double blocking = measure(client, "/bench/booking-blocking");
+        double reactive = measure(client, "/api/booking");
+        System.out.printf("booking saga, %d bookings on %d Tomcat threads: blocking %.1f req/s, reactive %.1f req/s%n",
+                BOOKINGS, TOMCAT_THREADS, blocking, reactive);
+
+        assertTrue(reactive > blocking,
+                "reactive saga should beat the blocking one (" + blocking + " req/s), was " + reactive);
+    }
+
+    private double measure(java.net.http.HttpClient client, String path) throws Exception {
+        bookingRepository.deleteAll();
+
+        long started = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> calls = new ArrayList<>();
+        for (int i = 1; i <= BOOKINGS; i++) {
+            calls.add(send(client, path, i));
+        }
+        for (CompletableFuture<HttpResponse<String>> call : calls) {
+            assertEquals(200, call.get(120, TimeUnit.SECONDS).statusCode());
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        assertEquals(BOOKINGS, bookingRepository.findAll().stream()
+                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED)
+                .count());
+        return BOOKINGS / seconds;
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(java.net.http.HttpClient client, String path, int roomId) {
+        String body = """
+                {"autoSelect":false, "roomId":%d, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+                """.formatted(roomId);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.booking_service.controller;
+
+import com.example.booking_service.model.User;
+import com.example.booking_service.repository.BookingRepository;
+import com.example.booking_service.repository.UserRepository;
+import com.example.booking_service.security.JwtService;
+import com.example.booking_service.security.UserIdentityCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * How many concurrent bookings each threading mode sustains against a slow hotel-service.
+ * Run with {@code mvn test -Dtest=BookingThreadingLoadTest -Dbenchmark=true}.
+ *
+ * A level counts as sustained when every booking succeeds and p99 stays under {@link #P99_BUDGET_MS}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(properties = {
+        "hotel.service.url=http://localhost:${wiremock.server.port}",
+        "app.jwt.secret=test-secret-test-secret-test-secret",
+        "app.jwt.issuer=test-issuer",
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "app.scheduling.enabled=false",
+        "spring.jpa.show-sql=false",
+        "server.tomcat.threads.max=32"
+})
+class BookingThreadingLoadTest {
+
+    static final int HOTEL_LATENCY_MS = 200;
+    static final long P99_BUDGET_MS = 5L * HOTEL_LATENCY_MS;
+    static final int[] LEVELS = {64, 256, 1024, 2048};
+
+    @TestConfiguration
+    static class LoadWebClientConfig {
+        @Bean
+        @Primary
+        WebClient loadWebClient() {
+            ConnectionProvider pool = ConnectionProvider.builder("load")
+                    .maxConnections(LEVELS[LEVELS.length - 1])
+                    .pendingAcquireMaxCount(-1)
+                    .build();
+            return WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool)))
+                    .build();
+        }
+    }
+
+    @Nested
+    class PlatformThreads extends Scenario {
+        @Test
+        void sustainedConcurrency() throws Exception {
+            assertTrue(run("platform") >= LEVELS[0]);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+    class VirtualThreads extends Scenario {
+        @Test
+        void sustainedConcurrency() throws Exception {
+            assertTrue(run("virtual") >= LEVELS[0]);
+        }
+    }
+
+    abstract static class Scenario {
+
+        @LocalServerPort int port;
+        @Autowired BookingRepository bookingRepository;
+        @Autowired UserRepository userRepository;
+        @Autowired UserIdentityCache userCache;
+        @Autowired JwtService jwtService;
+
+        String token;
+        int nextRoomId;
+
+        @BeforeEach
+        void setup() {
+            bookingRepository.deleteAll();
+            userRepository.deleteAll();
+            userCache.evictAll();
+
+            User u = new User();
+            u.setUsername("load");
+            u.setPassword("x");
+            u.setRole("USER");
+            userRepository.save(u);
+
+            token = jwtService.generateToken("load", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+            stubFor(post(urlPathMatching("/api/internal/rooms/\\d+/confirm-availability"))
+                    .willReturn(aResponse().withStatus(200).withFixedDelay(HOTEL_LATENCY_MS)));
+            stubFor(post(urlEqualTo("/api/internal/rooms/commit-batch"))
+                    .willReturn(okJson("{\"committed\":1,\"missing\":[]}")));
+        }
+
+        int run(String mode) throws Exception {
+            java.net.http.HttpClient client = java.net.http.HttpClient.newHttpClient();
+            fire(client, 16);
+
+            int sustained = 0;
+            for (int level : LEVELS) {
+                long[] latencies = fire(client, level);
+                long failed = Arrays.stream(latencies).filter(l -> l < 0).count();
+                long p99 = Arrays.stream(latencies).filter(l -> l >= 0).sorted()
+                        .skip(Math.max(0, (long) Math.ceil(latencies.length * 0.99) - 1))
+                        .findFirst().orElse(Long.MAX_VALUE);
+
+                boolean ok = failed == 0 && p99 <= P99_BUDGET_MS;
+                System.out.printf("threads=%s concurrency=%d failed=%d p99=%dms %s%n",
+                        mode, level, failed, p99, ok ? "sustained" : "NOT sustained");
+                if (!ok) {
+                    break;
+                }
+                sustained = level;
+            }
+            System.out.printf("threads=%s sustained up to %d concurrent bookings%n", mode, sustained);
+            return sustained;
+        }
+
+        private long[] fire(java.net.http.HttpClient client, int concurrency) throws Exception {
+            List<CompletableFuture<Long>> calls = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                long started = System.nanoTime();
+                calls.add(client.sendAsync(request(++nextRoomId), HttpResponse.BodyHandlers.discarding())
+                        .handle((resp, ex) -> ex == null && resp.statusCode() == 200
+                                ? (System.nanoTime() - started) / 1_000_000
+                                : -1L));
+            }
+            long[] latencies = new long[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                latencies[i] = calls.get(i).get(2, TimeUnit.MINUTES);
+            }
+            return latencies;
+        }
+
+        private HttpRequest request(int roomId) {
+            String body = """
+                    {"autoSelect":false, "roomId":%d, "startDate":"2026-04-01", "endDate":"2026-04-03"}
+                    """.formatted(roomId);
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/booking"))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.booking_service.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * H2 query plans of the hot lookups against the Flyway schema.
+ * The SQL mirrors what Hibernate generates for the repository methods.
+ */
+@DataJpaTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false"
+})
+class BookingQueryPlanTest {
+
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void findSummariesByUserId_usesUserIdIndex() {
+        String plan = explain("select id, room_id, start_date, end_date, status, created_at from bookings " +
+                "where user_id = 1 and id > 0 order by id fetch first 50 rows only");
+
+        assertUsesIndex(plan, "IDX_BOOKINGS_USER_ID_ID");
+        assertFalse(plan.contains("BOOKINGS.tableScan"), plan);
+    }
+
+    @Test
+    void findByUsername_usesUsernameIndex() {
+        String plan = explain("select id, username, password, role from users where username = 'alice'");
+
+        assertUsesIndex(plan, "IDX_USERS_USERNAME");
+        assertFalse(plan.contains("USERS.tableScan"), plan);
+    }
+
+    private String explain(String sql) {
+        return jdbc.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.toUpperCase().contains("PUBLIC." + index), () -> "expected " + index + " in plan:\n" + plan);
+    }
+}
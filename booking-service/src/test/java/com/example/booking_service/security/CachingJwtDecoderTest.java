@@ -0,0 +1,61 @@
+package com.example.booking_service.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+
+    @Test
+    void sameToken_isVerifiedOnce() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("t1")).thenReturn(jwt("t1", Instant.now().plusSeconds(3600)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, registry);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("vi", decoder.decode("t1").getSubject());
+        }
+
+        verify(delegate, times(1)).decode("t1");
+        assertEquals(2, registry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void rejectedToken_isNotCached() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("bad")).thenThrow(new JwtException("bad signature"));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, null);
+
+        assertThrows(JwtException.class, () -> decoder.decode("bad"));
+        assertThrows(JwtException.class, () -> decoder.decode("bad"));
+        verify(delegate, times(2)).decode("bad");
+    }
+
+    @Test
+    void expiredEntry_isVerifiedAgain() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("old")).thenReturn(jwt("old", Instant.now().minusSeconds(1)));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, null);
+
+        decoder.decode("old");
+        decoder.decode("old");
+        verify(delegate, times(2)).decode("old");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .subject("vi")
+                .issuedAt(expiresAt.minusSeconds(3600))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.booking_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Decode cost per request with and without the verified-token cache.
+ * Run with {@code mvn test -Dtest=JwtDecodeBenchmarkTest -Dbenchmark=true}.
+ *
+ * Models clients reusing their token: {@link #CLIENTS} tokens, each presented many times.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtDecodeBenchmarkTest {
+
+    static final String SECRET = "test-secret-test-secret-test-secret";
+    static final String ISSUER = "test-issuer";
+    static final int CLIENTS = 1000;
+    static final int REQUESTS = 500_000;
+
+    @Test
+    void cachedDecode_isCheaperPerRequest() {
+        JwtService jwtService = new JwtService(SECRET, ISSUER);
+        List<String> tokens = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            tokens.add(jwtService.generateToken("user" + i, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        }
+
+        JwtDecoder nimbus = nimbus();
+        JwtDecoder cached = new CachingJwtDecoder(nimbus(), 10_000, null);
+
+        // warm-up: JIT for both paths, and fills the cache
+        run(nimbus, tokens, REQUESTS / 5);
+        run(cached, tokens, REQUESTS / 5);
+
+        double nimbusNs = run(nimbus, tokens, REQUESTS);
+        double cachedNs = run(cached, tokens, REQUESTS);
+        System.out.printf("jwt decode: nimbus %.0f ns/request, cached %.0f ns/request (%.1fx)%n",
+                nimbusNs, cachedNs, nimbusNs / cachedNs);
+
+        assertTrue(cachedNs < nimbusNs, "cached decode should be cheaper: " + cachedNs + " vs " + nimbusNs);
+    }
+
+    private static double run(JwtDecoder decoder, List<String> tokens, int requests) {
+        long started = System.nanoTime();
+        int subjects = 0;
+        for (int i = 0; i < requests; i++) {
+            subjects += decoder.decode(tokens.get(i % tokens.size())).getSubject().length();
+        }
+        long elapsed = System.nanoTime() - started;
+        assertTrue(subjects > 0);
+        return (double) elapsed / requests;
+    }
+
+    private static JwtDecoder nimbus() {
+        var key = new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+        return decoder;
+    }
+}
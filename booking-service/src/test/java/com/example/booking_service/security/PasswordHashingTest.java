@@ -0,0 +1,47 @@
+package com.example.booking_service.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingTest {
+
+    @Test
+    void fullQueue_failsFastWith503() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(anyString())).thenAnswer(inv -> {
+            release.await();
+            return "hash";
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashing hashing = new PasswordHashing(encoder, registry, 1, 1);
+        try {
+            Mono<String> running = hashing.encode("a").cache();
+            running.subscribe();
+            Mono<String> queued = hashing.encode("b").cache();
+            queued.subscribe();
+
+            ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                    () -> hashing.encode("c").block(Duration.ofSeconds(1)));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+            assertEquals(1, registry.counter("auth.hash.rejected").count());
+
+            release.countDown();
+            assertEquals("hash", running.block(Duration.ofSeconds(1)));
+            assertEquals("hash", queued.block(Duration.ofSeconds(1)));
+        } finally {
+            release.countDown();
+            hashing.destroy();
+        }
+    }
+}
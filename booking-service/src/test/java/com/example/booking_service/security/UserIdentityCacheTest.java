@@ -0,0 +1,68 @@
+package com.example.booking_service.security;
+
+import com.example.booking_service.model.User;
+import com.example.booking_service.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserIdentityCacheTest {
+
+    UserRepository userRepository;
+    SimpleMeterRegistry registry;
+    UserIdentityCache cache;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        registry = new SimpleMeterRegistry();
+        cache = new UserIdentityCache(userRepository, registry, 100, 60_000);
+    }
+
+    @Test
+    void repeatedLookups_hitDatabaseOnce() {
+        when(userRepository.findByUsername("vi")).thenReturn(Optional.of(user(1L, "vi")));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1L, cache.findByUsername("vi").orElseThrow().getId());
+        }
+
+        verify(userRepository, times(1)).findByUsername("vi");
+        assertEquals(4, registry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void evict_forcesReload() {
+        when(userRepository.findByUsername("vi"))
+                .thenReturn(Optional.of(user(1L, "vi")))
+                .thenReturn(Optional.of(user(2L, "vi")));
+
+        cache.findByUsername("vi");
+        cache.evict("vi");
+
+        assertEquals(2L, cache.findByUsername("vi").orElseThrow().getId());
+    }
+
+    @Test
+    void unknownUser_isNotCached() {
+        when(userRepository.findByUsername("ghost"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(user(3L, "ghost")));
+
+        assertTrue(cache.findByUsername("ghost").isEmpty());
+        assertEquals(3L, cache.findByUsername("ghost").orElseThrow().getId());
+    }
+
+    private static User user(Long id, String username) {
+        User u = new User();
+        u.setId(id);
+        u.setUsername(username);
+        u.setRole("USER");
+        return u;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.Room;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * timesBooked increments kept in striped in-memory counters and added to the rooms table in one JDBC batch
+ * per flush, so confirms on a popular room do not queue up on an UPDATE of the same row.
+ * Live value of a room = persisted times_booked + increments not yet written.
+ * A flush takes the pending deltas and commits them while holding the write side of {@link #flushGate}, so a read
+ * made inside {@link #withoutFlush} never sees a delta both in the table and in memory, or in neither.
+ */
+@Component
+public class RoomBookingCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomBookingCounters.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    // not synchronized: a virtual thread blocked in JDBC inside a monitor pins its carrier
+    private final ReentrantReadWriteLock flushGate = new ReentrantReadWriteLock();
+
+    public RoomBookingCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    public void increment(Long roomId) {
+        pending.computeIfAbsent(roomId, id -> new LongAdder()).increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHoldChanged(RoomHoldEvent event) {
+        if (event.kind() == RoomHoldEvent.Kind.CREATED) {
+            increment(event.roomId());
+        }
+    }
+
+    public long unflushed(Long roomId) {
+        LongAdder counter = pending.get(roomId);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Exact when {@code room} was loaded inside {@link #withoutFlush} together with this call;
+     * otherwise a flush in between can make it low by that flush's delta, never high.
+     */
+    public long timesBooked(Room room) {
+        return room.getTimesBooked() + unflushed(room.getId());
+    }
+
+    /**
+     * Runs {@code read} with flushes held off, for loading persisted times_booked values that are then
+     * combined with {@link #unflushed}.
+     */
+    public <T> T withoutFlush(Supplier<T> read) {
+        flushGate.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            flushGate.readLock().unlock();
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.availability.times-booked-flush-ms:1000}",
+            initialDelayString = "${app.availability.times-booked-flush-ms:1000}"
+    )
+    @PreDestroy
+    public void flush() {
+        flushGate.writeLock().lock();
+        try {
+            doFlush();
+        } finally {
+            flushGate.writeLock().unlock();
+        }
+    }
+
+    private void doFlush() {
+        List<Object[]> batch = new ArrayList<>();
+        List<LongAdder> flushed = new ArrayList<>();
+
+        pending.forEach((roomId, counter) -> {
+            long delta = counter.sumThenReset();
+            if (delta != 0) {
+                batch.add(new Object[]{delta, roomId});
+                flushed.add(counter);
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            // one transaction, so a failed batch has written nothing and every delta can go back
+            tx.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate("update rooms set times_booked = times_booked + ? where id = ?", batch));
+            log.debug("timesBooked flushed: rooms={}", batch.size());
+        } catch (RuntimeException ex) {
+            log.warn("timesBooked flush failed, will retry: rooms={}, reason={}", batch.size(), ex.getMessage());
+            for (int i = 0; i < flushed.size(); i++) {
+                flushed.get(i).add((Long) batch.get(i)[0]);
+            }
+        }
+    }
+}
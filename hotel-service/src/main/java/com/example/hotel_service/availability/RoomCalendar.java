@@ -0,0 +1,177 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.RoomHold;
+import com.example.hotel_service.repository.RoomHoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Per-room booking calendar with one bit per held night, starting today.
+ * Free-room searches build the range mask once and AND it word by word against each room;
+ * ranges outside the calendar horizon fall back to {@link RoomHoldIndex}.
+ * The window is rebuilt every night so it keeps starting at today instead of shrinking towards the fallback.
+ */
+@Component
+public class RoomCalendar implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomCalendar.class);
+    private static final long[] EMPTY = new long[0];
+
+    private record Window(long firstDay, ConcurrentHashMap<Long, long[]> byRoom) {
+    }
+
+    private final RoomHoldRepository holdRepository;
+    private final RoomHoldIndex holdIndex;
+    private final int days;
+    private final int words;
+    // hold changes take the read side, a roll the write side, so no change lands between the reload and the swap
+    private final ReentrantReadWriteLock rollLock = new ReentrantReadWriteLock();
+    private volatile Window window;
+
+    public RoomCalendar(RoomHoldRepository holdRepository,
+                        RoomHoldIndex holdIndex,
+                        @Value("${app.availability.calendar-days:730}") int days) {
+        this.holdRepository = holdRepository;
+        this.holdIndex = holdIndex;
+        this.days = days;
+        this.words = (days + 63) >>> 6;
+        this.window = new Window(LocalDate.now().toEpochDay(), new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        roll();
+    }
+
+    @Scheduled(cron = "${app.availability.calendar-roll-cron:0 0 0 * * *}")
+    public void roll() {
+        Window next = new Window(LocalDate.now().toEpochDay(), new ConcurrentHashMap<>());
+        rollLock.writeLock().lock();
+        try {
+            holdRepository.findRangesByStatus(RoomHold.HoldStatus.HOLD)
+                    .forEach(h -> mark(next, h.getRoomId(), h.getStartDate(), h.getEndDate(), null));
+            window = next;
+        } finally {
+            rollLock.writeLock().unlock();
+        }
+        log.info("Room calendar loaded: rooms={}, days={}, from={}",
+                next.byRoom().size(), days, LocalDate.ofEpochDay(next.firstDay()));
+    }
+
+    public boolean isFree(Long roomId, LocalDate start, LocalDate end) {
+        return freeFor(start, end).test(roomId);
+    }
+
+    public List<Long> freeRooms(Collection<Long> roomIds, LocalDate start, LocalDate end) {
+        Predicate<Long> isFree = freeFor(start, end);
+        List<Long> free = new ArrayList<>(roomIds.size());
+        for (Long roomId : roomIds) {
+            if (isFree.test(roomId)) free.add(roomId);
+        }
+        return free;
+    }
+
+    // builds the range mask once for checking many rooms against the same dates
+    public Predicate<Long> freeFor(LocalDate start, LocalDate end) {
+        Window current = window;
+        RangeMask mask = mask(current, start, end);
+        if (mask == null) {
+            return roomId -> !holdIndex.overlaps(roomId, start, end);
+        }
+        return roomId -> mask.isClear(current.byRoom().getOrDefault(roomId, EMPTY));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHoldChanged(RoomHoldEvent event) {
+        rollLock.readLock().lock();
+        try {
+            mark(window, event.roomId(), event.startDate(), event.endDate(),
+                    event.kind() == RoomHoldEvent.Kind.CREATED ? null : event.requestId());
+        } finally {
+            rollLock.readLock().unlock();
+        }
+    }
+
+    // sets the nights of [start, end), or clears them when releasedRequestId is given; legacy holds of one room
+    // can overlap, so nights still covered by another hold of the room are set again in the same update
+    private void mark(Window target, Long roomId, LocalDate start, LocalDate end, String releasedRequestId) {
+        RangeMask mask = clip(target, start, end);
+        if (mask == null) {
+            return;
+        }
+        target.byRoom().compute(roomId, (id, current) -> {
+            long[] next = current == null ? new long[words] : current.clone();
+            if (releasedRequestId == null) {
+                mask.apply(next, true);
+            } else {
+                mask.apply(next, false);
+                holdIndex.forEachOverlapping(roomId, releasedRequestId, start, end, (s, e) -> {
+                    RangeMask other = clip(target, s, e);
+                    if (other != null) other.apply(next, true);
+                });
+            }
+            return next;
+        });
+    }
+
+    // the part of [start, end) inside the window, or null when nothing of it is
+    private RangeMask clip(Window target, LocalDate start, LocalDate end) {
+        int from = (int) Math.max(0, start.toEpochDay() - target.firstDay());
+        int to = (int) Math.min(days, end.toEpochDay() - target.firstDay());
+        return from < to ? new RangeMask(from, to) : null;
+    }
+
+    private RangeMask mask(Window target, LocalDate start, LocalDate end) {
+        long from = start.toEpochDay() - target.firstDay();
+        long to = end.toEpochDay() - target.firstDay();
+        if (from < 0 || to > days || from >= to) {
+            return null;
+        }
+        return new RangeMask((int) from, (int) to);
+    }
+
+    // word-aligned bit mask of the nights [from, to)
+    static final class RangeMask {
+
+        final int firstWord;
+        final long[] masks;
+
+        RangeMask(int from, int to) {
+            int last = to - 1;
+            this.firstWord = from >>> 6;
+            this.masks = new long[(last >>> 6) - firstWord + 1];
+            for (int i = 0; i < masks.length; i++) {
+                masks[i] = -1L;
+            }
+            masks[0] &= -1L << (from & 63);
+            masks[masks.length - 1] &= -1L >>> (63 - (last & 63));
+        }
+
+        void apply(long[] bits, boolean held) {
+            for (int i = 0; i < masks.length; i++) {
+                int w = firstWord + i;
+                bits[w] = held ? bits[w] | masks[i] : bits[w] & ~masks[i];
+            }
+        }
+
+        boolean isClear(long[] bits) {
+            for (int i = 0; i < masks.length && firstWord + i < bits.length; i++) {
+                if ((bits[firstWord + i] & masks[i]) != 0) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.RoomHold;
+
+import java.time.LocalDate;
+
+public record RoomHoldEvent(Kind kind, Long roomId, String requestId, LocalDate startDate, LocalDate endDate) {
+
+    public enum Kind { CREATED, RELEASED }
+
+    public static RoomHoldEvent created(RoomHold hold) {
+        return of(Kind.CREATED, hold);
+    }
+
+    public static RoomHoldEvent released(RoomHold hold) {
+        return of(Kind.RELEASED, hold);
+    }
+
+    private static RoomHoldEvent of(Kind kind, RoomHold hold) {
+        return new RoomHoldEvent(kind, hold.getRoom().getId(), hold.getRequestId(), hold.getStartDate(), hold.getEndDate());
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.RoomHold;
+import com.example.hotel_service.repository.RoomHoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory copy of the active HOLD ranges per room, used for overlap checks instead of a query per confirm.
+ * Loaded from room_holds on startup and updated after each committed hold change; the table stays the source of truth.
+ */
+@Component
+public class RoomHoldIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomHoldIndex.class);
+
+    private final RoomHoldRepository holdRepository;
+    private final ConcurrentHashMap<Long, Intervals> byRoom = new ConcurrentHashMap<>();
+
+    public RoomHoldIndex(RoomHoldRepository holdRepository) {
+        this.holdRepository = holdRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    public void reload() {
+        byRoom.clear();
+        var holds = holdRepository.findRangesByStatus(RoomHold.HoldStatus.HOLD);
+        holds.forEach(h -> add(h.getRoomId(), h.getRequestId(), h.getStartDate(), h.getEndDate()));
+        log.info("Room hold index loaded: holds={}, rooms={}", holds.size(), byRoom.size());
+    }
+
+    public boolean overlaps(Long roomId, LocalDate start, LocalDate end) {
+        Intervals intervals = byRoom.get(roomId);
+        return intervals != null && intervals.overlaps(day(start), day(end));
+    }
+
+    // other holds of the room that overlap [start, end); legacy rows may overlap each other
+    public void forEachOverlapping(Long roomId, String exceptRequestId, LocalDate start, LocalDate end,
+                                   BiConsumer<LocalDate, LocalDate> action) {
+        Intervals intervals = byRoom.get(roomId);
+        if (intervals != null) {
+            intervals.forEachOverlapping(exceptRequestId, day(start), day(end), action);
+        }
+    }
+
+    public void add(Long roomId, String requestId, LocalDate start, LocalDate end) {
+        byRoom.compute(roomId, (id, current) ->
+                (current == null ? Intervals.EMPTY : current).with(requestId, day(start), day(end)));
+    }
+
+    public void remove(Long roomId, String requestId) {
+        byRoom.computeIfPresent(roomId, (id, current) -> {
+            Intervals next = current.without(requestId);
+            return next.size() == 0 ? null : next;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHoldChanged(RoomHoldEvent event) {
+        switch (event.kind()) {
+            case CREATED -> add(event.roomId(), event.requestId(), event.startDate(), event.endDate());
+            case RELEASED -> remove(event.roomId(), event.requestId());
+        }
+    }
+
+    private static int day(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    /**
+     * Immutable per-room snapshot: ranges sorted by start with a running max of end dates,
+     * so an overlap check is one binary search even if legacy rows overlap each other.
+     */
+    static final class Intervals {
+
+        static final Intervals EMPTY = new Intervals(new int[0], new int[0], new String[0]);
+
+        private final int[] starts;
+        private final int[] ends;
+        private final String[] requestIds;
+        private final int[] maxEnds;
+
+        private Intervals(int[] starts, int[] ends, String[] requestIds) {
+            this.starts = starts;
+            this.ends = ends;
+            this.requestIds = requestIds;
+            this.maxEnds = new int[ends.length];
+            int max = Integer.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        int size() {
+            return starts.length;
+        }
+
+        boolean overlaps(int start, int end) {
+            int last = lastStartBefore(end);
+            return last >= 0 && maxEnds[last] > start;
+        }
+
+        void forEachOverlapping(String exceptRequestId, int start, int end, BiConsumer<LocalDate, LocalDate> action) {
+            int last = lastStartBefore(end);
+            for (int i = 0; i <= last; i++) {
+                if (ends[i] > start && !requestIds[i].equals(exceptRequestId)) {
+                    action.accept(LocalDate.ofEpochDay(starts[i]), LocalDate.ofEpochDay(ends[i]));
+                }
+            }
+        }
+
+        Intervals with(String requestId, int start, int end) {
+            Intervals base = without(requestId);
+            int n = base.size();
+            int at = base.lastStartBefore(start + 1) + 1;
+
+            int[] s = new int[n + 1];
+            int[] e = new int[n + 1];
+            String[] r = new String[n + 1];
+            System.arraycopy(base.starts, 0, s, 0, at);
+            System.arraycopy(base.ends, 0, e, 0, at);
+            System.arraycopy(base.requestIds, 0, r, 0, at);
+            s[at] = start;
+            e[at] = end;
+            r[at] = requestId;
+            System.arraycopy(base.starts, at, s, at + 1, n - at);
+            System.arraycopy(base.ends, at, e, at + 1, n - at);
+            System.arraycopy(base.requestIds, at, r, at + 1, n - at);
+            return new Intervals(s, e, r);
+        }
+
+        Intervals without(String requestId) {
+            int at = Arrays.asList(requestIds).indexOf(requestId);
+            if (at < 0) {
+                return this;
+            }
+            int n = size();
+            int[] s = new int[n - 1];
+            int[] e = new int[n - 1];
+            String[] r = new String[n - 1];
+            System.arraycopy(starts, 0, s, 0, at);
+            System.arraycopy(ends, 0, e, 0, at);
+            System.arraycopy(requestIds, 0, r, 0, at);
+            System.arraycopy(starts, at + 1, s, at, n - at - 1);
+            System.arraycopy(ends, at + 1, e, at, n - at - 1);
+            System.arraycopy(requestIds, at + 1, r, at, n - at - 1);
+            return new Intervals(s, e, r);
+        }
+
+        // index of the last range whose start is strictly before the given day, or -1
+        private int lastStartBefore(int day) {
+            int lo = 0;
+            int hi = starts.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < day) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+}
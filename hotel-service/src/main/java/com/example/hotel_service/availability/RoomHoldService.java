@@ -0,0 +1,261 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.Room;
+import com.example.hotel_service.model.RoomHold;
+import com.example.hotel_service.repository.RoomHoldRepository;
+import com.example.hotel_service.repository.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+
+@Service
+public class RoomHoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomHoldService.class);
+
+    private final RoomRepository roomRepository;
+    private final RoomHoldRepository holdRepository;
+    private final RoomHoldIndex holdIndex;
+    private final RoomCalendar roomCalendar;
+    private final RoomLocks roomLocks;
+    private final RoomRanking ranking;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final Duration defaultTtl;
+    private final boolean singleInstance;
+
+    public RoomHoldService(RoomRepository roomRepository,
+                           RoomHoldRepository holdRepository,
+                           RoomHoldIndex holdIndex,
+                           RoomCalendar roomCalendar,
+                           RoomLocks roomLocks,
+                           RoomRanking ranking,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher events,
+                           @Value("${app.holds.default-ttl-seconds:0}") long defaultTtlSeconds,
+                           @Value("${app.availability.single-instance:false}") boolean singleInstance) {
+        this.roomRepository = roomRepository;
+        this.holdRepository = holdRepository;
+        this.holdIndex = holdIndex;
+        this.roomCalendar = roomCalendar;
+        this.roomLocks = roomLocks;
+        this.ranking = ranking;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.defaultTtl = defaultTtlSeconds > 0 ? Duration.ofSeconds(defaultTtlSeconds) : null;
+        this.singleInstance = singleInstance;
+    }
+
+    // The room lock is held until the transaction has committed and the index has seen the new hold,
+    // so check-then-insert cannot interleave for one room within this JVM. Other replicas are kept out
+    // by the row lock on the room taken inside the transaction.
+    public void confirm(Long roomId, String requestId, LocalDate start, LocalDate end, Duration ttl) {
+        Instant expiresAt = expiresAt(ttl);
+        Lock lock = roomLocks.forRoom(roomId);
+        lock.lock();
+        try {
+            tx.executeWithoutResult(status -> doConfirm(roomId, requestId, start, end, expiresAt));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void doConfirm(Long roomId, String requestId, LocalDate start, LocalDate end, Instant expiresAt) {
+        Room room = roomRepository.findByIdForUpdate(roomId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Room not found"));
+
+        // checked after the row lock: a hedged copy of this confirm on another replica may have just committed
+        // the hold, and the overlap query below would otherwise report it as a conflict with itself
+        if (existingHold(requestId).isPresent()) {
+            return;
+        }
+
+        if (!room.isAvailable()) {
+            log.warn("Room disabled (available=false): roomId={}, requestId={}", roomId, requestId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Room is disabled (available=false)");
+        }
+
+        if (overlaps(roomId, start, end)) {
+            log.warn("Room not available for requested dates: roomId={}, requestId={}", roomId, requestId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Room is already booked for these dates");
+        }
+
+        createHold(room, requestId, start, end, expiresAt);
+    }
+
+    public Long holdBestRoom(String requestId, LocalDate start, LocalDate end, Duration ttl) {
+        Instant expiresAt = expiresAt(ttl);
+        Optional<RoomHold> existing = tx.execute(status -> existingHold(requestId));
+        if (existing.isPresent()) {
+            return existing.get().getRoom().getId();
+        }
+
+        Iterator<Long> candidates = ranking.stream().filter(roomCalendar.freeFor(start, end)).iterator();
+        while (candidates.hasNext()) {
+            Long roomId = candidates.next();
+            Lock lock = roomLocks.forRoom(roomId);
+            lock.lock();
+            try {
+                Boolean held = tx.execute(status -> tryHold(roomId, requestId, start, end, expiresAt));
+                if (Boolean.TRUE.equals(held)) {
+                    return roomId;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        log.warn("No free rooms for requested dates: requestId={}, startDate={}, endDate={}", requestId, start, end);
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "No available rooms for selected dates");
+    }
+
+    // re-checked under the room lock: the candidate may have been taken or disabled since the search
+    private boolean tryHold(Long roomId, String requestId, LocalDate start, LocalDate end, Instant expiresAt) {
+        Room room = roomRepository.findByIdForUpdate(roomId).orElse(null);
+        if (room == null || !room.isAvailable() || overlaps(roomId, start, end)) {
+            return false;
+        }
+        createHold(room, requestId, start, end, expiresAt);
+        return true;
+    }
+
+    @Transactional
+    public void release(Long roomId, String requestId) {
+        var holdOpt = holdRepository.findByRequestId(requestId);
+        if (holdOpt.isEmpty()) return;
+
+        var hold = holdOpt.get();
+        if (roomId != null && !hold.getRoom().getId().equals(roomId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "requestId belongs to another room");
+        }
+
+        if (hold.getStatus() == RoomHold.HoldStatus.RELEASED) {
+            log.info(
+                    "Hold already released (idempotent): requestId={}",
+                    requestId
+            );
+            return;
+        }
+
+        hold.setStatus(RoomHold.HoldStatus.RELEASED);
+        holdRepository.save(hold);
+        events.publishEvent(RoomHoldEvent.released(hold));
+        log.info("Hold released: roomId={}, requestId={}", hold.getRoom().getId(), requestId);
+    }
+
+    // releases a coalesced batch of holds by requestId in one transaction; unknown or released ids are skipped
+    @Transactional
+    public int releaseAll(Collection<String> requestIds) {
+        List<RoomHold> holds = holdRepository.findByRequestIdInAndStatus(requestIds, RoomHold.HoldStatus.HOLD);
+
+        for (RoomHold hold : holds) {
+            hold.setStatus(RoomHold.HoldStatus.RELEASED);
+            events.publishEvent(RoomHoldEvent.released(hold));
+            log.info("Hold released: roomId={}, requestId={}", hold.getRoom().getId(), hold.getRequestId());
+        }
+        holdRepository.saveAll(holds);
+        return holds.size();
+    }
+
+    // makes a batch of holds permanent (clears expires_at) once booking-service has confirmed them;
+    // returns the requestIds that have no live hold any more (lapsed, released or unknown)
+    @Transactional
+    public List<String> commitAll(Collection<String> requestIds) {
+        holdRepository.clearLeases(requestIds, RoomHold.HoldStatus.HOLD);
+
+        Set<String> live = holdRepository.findByRequestIdInAndStatus(requestIds, RoomHold.HoldStatus.HOLD).stream()
+                .map(RoomHold::getRequestId)
+                .collect(Collectors.toSet());
+        List<String> missing = requestIds.stream().filter(id -> !live.contains(id)).distinct().toList();
+
+        if (!missing.isEmpty()) {
+            log.warn("Commit found no live hold: requested={}, missing={}", requestIds.size(), missing);
+        }
+        return missing;
+    }
+
+    // releases up to batchSize holds whose expiry has passed, in one transaction
+    @Transactional
+    public int expireBatch(Instant now, int batchSize) {
+        List<RoomHold> expired = holdRepository.findByStatusAndExpiresAtLessThanEqualOrderByExpiresAtAsc(
+                RoomHold.HoldStatus.HOLD, now, Limit.of(batchSize));
+
+        int released = 0;
+        for (RoomHold hold : expired) {
+            if (holdRepository.releaseIfExpired(hold.getId(), now,
+                    RoomHold.HoldStatus.HOLD, RoomHold.HoldStatus.RELEASED) == 0) {
+                log.info("Hold committed or released since the sweep read it, kept: requestId={}", hold.getRequestId());
+                continue;
+            }
+            released++;
+            events.publishEvent(RoomHoldEvent.released(hold));
+            log.info("Hold expired: roomId={}, requestId={}, expiresAt={}",
+                    hold.getRoom().getId(), hold.getRequestId(), hold.getExpiresAt());
+        }
+        return released;
+    }
+
+    // The index only knows holds made through this JVM. With app.availability.single-instance it is the
+    // whole check; otherwise it only rejects early and the table, read under the room row lock, has the last
+    // word on holds another replica committed.
+    private boolean overlaps(Long roomId, LocalDate start, LocalDate end) {
+        if (holdIndex.overlaps(roomId, start, end)) {
+            return true;
+        }
+        return !singleInstance && holdRepository.existsByRoomIdAndStatusAndStartDateLessThanAndEndDateGreaterThan(
+                        roomId, RoomHold.HoldStatus.HOLD, end, start);
+    }
+
+    private Instant expiresAt(Duration ttl) {
+        Duration effective = ttl != null ? ttl : defaultTtl;
+        return effective == null ? null : Instant.now().plus(effective);
+    }
+
+    private Optional<RoomHold> existingHold(String requestId) {
+        var existing = holdRepository.findByRequestId(requestId);
+        if (existing.isPresent()) {
+            if (existing.get().getStatus() == RoomHold.HoldStatus.HOLD) {
+                log.info("Idempotent confirm request detected, skipping: requestId={}", requestId);
+                return existing;
+            }
+            log.warn("Confirm received for already RELEASED hold: requestId={}", requestId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Hold already released");
+        }
+        return Optional.empty();
+    }
+
+    private void createHold(Room room, String requestId, LocalDate start, LocalDate end, Instant expiresAt) {
+        RoomHold hold = new RoomHold();
+        hold.setRequestId(requestId);
+        hold.setRoom(room);
+        hold.setStartDate(start);
+        hold.setEndDate(end);
+        hold.setStatus(RoomHold.HoldStatus.HOLD);
+        hold.setExpiresAt(expiresAt);
+        holdRepository.save(hold);
+        events.publishEvent(RoomHoldEvent.created(hold));
+        log.info(
+                "Room hold created: roomId={}, requestId={}, startDate={}, endDate={}",
+                room.getId(), requestId, start, end
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.RoomHold;
+import com.example.hotel_service.repository.RoomHoldRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Releases holds whose expiresAt has passed, in bounded batches so one run never locks many rows at once.
+ * Whatever is left after max-batches is reported as backlog and picked up by the next run.
+ */
+@Component
+public class RoomHoldSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomHoldSweeper.class);
+
+    private final RoomHoldService holdService;
+    private final RoomHoldRepository holdRepository;
+    private final int batchSize;
+    private final int maxBatches;
+
+    private final Counter expired;
+    private final Timer batchTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public RoomHoldSweeper(RoomHoldService holdService,
+                           RoomHoldRepository holdRepository,
+                           MeterRegistry registry,
+                           @Value("${app.holds.sweep-batch-size:500}") int batchSize,
+                           @Value("${app.holds.sweep-max-batches:20}") int maxBatches) {
+        this.holdService = holdService;
+        this.holdRepository = holdRepository;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+
+        this.expired = Counter.builder("room.holds.expired")
+                .description("Holds released by the expiry sweeper")
+                .register(registry);
+        this.batchTimer = Timer.builder("room.holds.sweep.batch")
+                .description("Duration of one expiry sweeper batch")
+                .register(registry);
+        registry.gauge("room.holds.expired.backlog", backlog);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.holds.sweep-interval-ms:60000}",
+            initialDelayString = "${app.holds.sweep-interval-ms:60000}"
+    )
+    public void sweep() {
+        Instant now = Instant.now();
+        int total = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer released = batchTimer.record(() -> holdService.expireBatch(now, batchSize));
+            total += released;
+            expired.increment(released);
+            if (released < batchSize) {
+                break;
+            }
+        }
+
+        backlog.set(holdRepository.countByStatusAndExpiresAtLessThanEqual(
+                RoomHold.HoldStatus.HOLD, now));
+        if (total > 0 || backlog.get() > 0) {
+            log.info("Hold sweep finished: expired={}, backlog={}", total, backlog.get());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.hotel_service.availability;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of lock stripes keyed by room id: holds on the same room are serialized,
+ * holds on different rooms only contend when their ids share a stripe.
+ */
+@Component
+public class RoomLocks {
+
+    private final Lock[] stripes;
+
+    public RoomLocks(@Value("${app.availability.lock-stripes:1024}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock forRoom(Long roomId) {
+        int h = roomId.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.Room;
+import com.example.hotel_service.repository.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Enabled rooms kept ordered by (timesBooked, id): least booked first, so bookings spread evenly across rooms.
+ * Updated as holds are created and rooms are added, enabled or disabled; reading the top K is O(K).
+ */
+@Component
+public class RoomRanking implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomRanking.class);
+
+    private record Entry(long timesBooked, long roomId) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingLong(Entry::timesBooked)
+            .thenComparingLong(Entry::roomId);
+
+    private final RoomRepository roomRepository;
+    private final RoomBookingCounters counters;
+    private final ConcurrentSkipListSet<Entry> ranked = new ConcurrentSkipListSet<>(ORDER);
+    private final ConcurrentHashMap<Long, Entry> byRoom = new ConcurrentHashMap<>();
+
+    public RoomRanking(RoomRepository roomRepository, RoomBookingCounters counters) {
+        this.roomRepository = roomRepository;
+        this.counters = counters;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    // startup runners (dev data) may have saved rooms after the first load
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        // loaded and ranked with flushes held off, so no increment is counted twice or missed
+        List<Room> rooms = counters.withoutFlush(() -> {
+            List<Room> available = roomRepository.findByAvailableTrue();
+            byRoom.clear();
+            ranked.clear();
+            available.forEach(this::put);
+            return available;
+        });
+        log.info("Room ranking loaded: rooms={}", rooms.size());
+    }
+
+    public void put(Room room) {
+        if (!room.isAvailable()) {
+            remove(room.getId());
+            return;
+        }
+        long timesBooked = counters.timesBooked(room);
+        byRoom.compute(room.getId(), (id, current) -> {
+            if (current != null) ranked.remove(current);
+            Entry next = new Entry(timesBooked, id);
+            ranked.add(next);
+            return next;
+        });
+    }
+
+    public void remove(Long roomId) {
+        byRoom.computeIfPresent(roomId, (id, current) -> {
+            ranked.remove(current);
+            return null;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHoldChanged(RoomHoldEvent event) {
+        if (event.kind() != RoomHoldEvent.Kind.CREATED) {
+            return;
+        }
+        byRoom.computeIfPresent(event.roomId(), (id, current) -> {
+            ranked.remove(current);
+            Entry next = new Entry(current.timesBooked() + 1, id);
+            ranked.add(next);
+            return next;
+        });
+    }
+
+    // lazily ordered ids; the old entry of a room that is being moved concurrently is skipped
+    public Stream<Long> stream() {
+        return ranked.stream()
+                .filter(entry -> entry.equals(byRoom.get(entry.roomId())))
+                .map(Entry::roomId)
+                .distinct();
+    }
+
+    public List<Long> top(int limit) {
+        return stream().limit(limit).toList();
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import java.util.List;
+
 @Configuration
 public class TestDataInitializer {
 
@@ -37,8 +39,7 @@ public class TestDataInitializer {
             r2.setAvailable(true);
             r2.setTimesBooked(0);
 
-            roomRepository.save(r1);
-            roomRepository.save(r2);
+            roomRepository.saveAll(List.of(r1, r2));
 
             System.out.println("DEV DATA: created hotel id=" + savedHotel.getId()
                     + ", rooms: 101 and 102");
@@ -1,9 +1,16 @@
 package com.example.hotel_service.controller;
 
+import com.example.hotel_service.api.KeysetPages;
+import com.example.hotel_service.api.NdjsonWriter;
 import com.example.hotel_service.model.Hotel;
 import com.example.hotel_service.repository.HotelRepository;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -11,9 +18,11 @@ import java.util.List;
 public class HotelController {
 
     private final HotelRepository hotelRepository;
+    private final NdjsonWriter ndjsonWriter;
 
-    public HotelController(HotelRepository hotelRepository) {
+    public HotelController(HotelRepository hotelRepository, NdjsonWriter ndjsonWriter) {
         this.hotelRepository = hotelRepository;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     @PostMapping
@@ -22,7 +31,16 @@ public class HotelController {
     }
 
     @GetMapping
-    public List<Hotel> findAll() {
-        return hotelRepository.findAll();
+    public ResponseEntity<List<Hotel>> findAll(@RequestParam(required = false) Long after,
+                                               @RequestParam(defaultValue = "100") int limit) {
+        List<Hotel> hotels = hotelRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPages.after(after), KeysetPages.limit(limit));
+        return KeysetPages.page(hotels, limit, Hotel::getId);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamAll(@RequestParam(required = false) Long after, HttpServletResponse response) throws IOException {
+        ndjsonWriter.write(hotelRepository.streamByIdGreaterThan(KeysetPages.after(after)), response);
     }
 }
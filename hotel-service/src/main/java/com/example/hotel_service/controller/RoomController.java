@@ -1,21 +1,33 @@
 package com.example.hotel_service.controller;
 
+import com.example.hotel_service.api.KeysetPages;
+import com.example.hotel_service.api.NdjsonWriter;
+import com.example.hotel_service.availability.RoomCalendar;
+import com.example.hotel_service.availability.RoomRanking;
 import com.example.hotel_service.model.Hotel;
 import com.example.hotel_service.model.Room;
 import com.example.hotel_service.repository.HotelRepository;
-import com.example.hotel_service.repository.RoomHoldRepository;
 import com.example.hotel_service.repository.RoomRepository;
+import com.example.hotel_service.stats.RoomStatsSnapshot;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
-import com.example.hotel_service.model.RoomHold;
 import org.springframework.security.access.prepost.PreAuthorize;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
-import java.util.Comparator;
 import java.util.List;
 
 @RestController
@@ -24,12 +36,23 @@ public class RoomController {
 
     private final RoomRepository roomRepository;
     private final HotelRepository hotelRepository;
-    private final RoomHoldRepository roomHoldRepository;
-
-    public RoomController(RoomRepository roomRepository, HotelRepository hotelRepository, RoomHoldRepository roomHoldRepository) {
+    private final RoomCalendar roomCalendar;
+    private final RoomRanking ranking;
+    private final RoomStatsSnapshot statsSnapshot;
+    private final NdjsonWriter ndjsonWriter;
+
+    public RoomController(RoomRepository roomRepository,
+                          HotelRepository hotelRepository,
+                          RoomCalendar roomCalendar,
+                          RoomRanking ranking,
+                          RoomStatsSnapshot statsSnapshot,
+                          NdjsonWriter ndjsonWriter) {
         this.roomRepository = roomRepository;
         this.hotelRepository = hotelRepository;
-        this.roomHoldRepository = roomHoldRepository;
+        this.roomCalendar = roomCalendar;
+        this.ranking = ranking;
+        this.statsSnapshot = statsSnapshot;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     public static class CreateRoomRequest {
@@ -84,7 +107,37 @@ public class RoomController {
             room.setAvailable(request.getAvailable());
         }
 
-        return roomRepository.save(room);
+        Room saved = roomRepository.save(room);
+        ranking.put(saved);
+        return saved;
+    }
+
+    public static class UpdateRoomRequest {
+        private String number;
+        private Boolean available;
+
+        public String getNumber() { return number; }
+        public Boolean getAvailable() { return available; }
+
+        public void setNumber(String number) { this.number = number; }
+        public void setAvailable(Boolean available) { this.available = available; }
+    }
+
+    @PatchMapping("/{id}")
+    public Room update(@PathVariable Long id, @RequestBody UpdateRoomRequest request) {
+        Room room = roomRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Room not found"));
+
+        if (request.getNumber() != null && !request.getNumber().isBlank()) {
+            room.setNumber(request.getNumber());
+        }
+        if (request.getAvailable() != null) {
+            room.setAvailable(request.getAvailable());
+        }
+
+        Room saved = roomRepository.save(room);
+        ranking.put(saved);
+        return saved;
     }
 
     public static class RoomStatsDto {
@@ -114,49 +167,86 @@ public class RoomController {
     }
 
     @GetMapping
-    public List<Room> getAvailableRooms() {
-        return roomRepository.findByAvailableTrue();
+    public ResponseEntity<List<Room>> getAvailableRooms(@RequestParam(required = false) Long after,
+                                                        @RequestParam(defaultValue = "100") int limit) {
+        List<Room> rooms = roomRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(
+                KeysetPages.after(after), KeysetPages.limit(limit));
+        return KeysetPages.page(rooms, limit, Room::getId);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamAvailableRooms(@RequestParam(required = false) Long after,
+                                     HttpServletResponse response) throws IOException {
+        ndjsonWriter.write(roomRepository.streamAvailableByIdGreaterThan(KeysetPages.after(after)), response);
+    }
+
+    @GetMapping("/available")
+    public List<Room> getAvailableRooms(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+                                        @RequestParam(required = false) Long hotelId) {
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "start must be before end");
+        }
+
+        List<Room> rooms = hotelId == null
+                ? roomRepository.findByAvailableTrue()
+                : roomRepository.findByHotelIdAndAvailableTrue(hotelId);
+
+        var free = new HashSet<>(roomCalendar.freeRooms(rooms.stream().map(Room::getId).toList(), start, end));
+        return rooms.stream()
+                .filter(room -> free.contains(room.getId()))
+                .collect(Collectors.toList());
     }
 
     @GetMapping("/recommend")
-    public List<Room> recommendRooms() {
-        List<Room> rooms = roomRepository.findByAvailableTrue();
-        rooms.sort(Comparator
-                .comparingLong(Room::getTimesBooked)
-                .thenComparing(Room::getId));
-        return rooms;
+    public List<Room> recommendRooms(@RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+
+        List<Long> ids = ranking.top(limit == null ? Integer.MAX_VALUE : limit);
+        Map<Long, Room> rooms = roomRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+
+        return ids.stream()
+                .map(rooms::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @GetMapping("/stats")
     @PreAuthorize("hasRole('ADMIN')")
-    public List<RoomStatsDto> getRoomsStats() {
-        LocalDate today = LocalDate.now();
+    public ResponseEntity<List<RoomStatsDto>> getRoomsStats(@RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "100") int size) {
+        if (page < 0 || size < 1 || size > 1000) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must be >= 0 and size between 1 and 1000");
+        }
+
+        RoomStatsSnapshot.Snapshot snapshot = statsSnapshot.get();
+        List<RoomRepository.RoomStatsRow> rows = snapshot.rows();
+        int from = (int) Math.min((long) page * size, rows.size());
+        int to = Math.min(from + size, rows.size());
 
-        return roomRepository.findAll()
+        List<RoomStatsDto> body = rows.subList(from, to)
                 .stream()
-                .map(room -> {
+                .map(row -> {
                     RoomStatsDto dto = new RoomStatsDto();
-                    dto.setRoomId(room.getId());
-                    dto.setNumber(room.getNumber());
-                    dto.setAvailable(room.isAvailable());
-                    dto.setTimesBooked(room.getTimesBooked());
-
-                    if (room.getHotel() != null) {
-                        dto.setHotelId(room.getHotel().getId());
-                        dto.setHotelName(room.getHotel().getName());
-                    }
-
-                    long activeHolds = roomHoldRepository.countByRoomIdAndStatusAndStartDateLessThanEqualAndEndDateGreaterThan(
-                            room.getId(),
-                            RoomHold.HoldStatus.HOLD,
-                            today,
-                            today
-                    );
-                    dto.setActiveHoldsToday(activeHolds);
-
+                    dto.setRoomId(row.getRoomId());
+                    dto.setHotelId(row.getHotelId());
+                    dto.setHotelName(row.getHotelName());
+                    dto.setNumber(row.getNumber());
+                    dto.setAvailable(row.isAvailable());
+                    dto.setTimesBooked(snapshot.timesBooked(row));
+                    dto.setActiveHoldsToday(row.getActiveHoldsToday());
                     return dto;
                 })
                 .collect(Collectors.toList());
+
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(rows.size()))
+                .header("X-Stats-Generated-At", snapshot.builtAt().toString())
+                .body(body);
     }
 
 }
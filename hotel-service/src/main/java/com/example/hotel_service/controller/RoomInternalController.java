@@ -1,53 +1,183 @@
 package com.example.hotel_service.controller;
 
-import com.example.hotel_service.model.Room;
-import com.example.hotel_service.model.RoomHold;
-import com.example.hotel_service.repository.RoomHoldRepository;
+import com.example.hotel_service.availability.RoomCalendar;
+import com.example.hotel_service.availability.RoomHoldService;
 import com.example.hotel_service.repository.RoomRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/internal/rooms")
 public class RoomInternalController {
 
     private static final Logger log = LoggerFactory.getLogger(RoomInternalController.class);
+    private static final int MAX_BATCH = 500;
 
     private final RoomRepository roomRepository;
-    private final RoomHoldRepository holdRepository;
+    private final RoomCalendar roomCalendar;
+    private final RoomHoldService holdService;
 
-    public RoomInternalController(RoomRepository roomRepository, RoomHoldRepository holdRepository) {
+    public RoomInternalController(RoomRepository roomRepository,
+                                  RoomCalendar roomCalendar,
+                                  RoomHoldService holdService) {
         this.roomRepository = roomRepository;
-        this.holdRepository = holdRepository;
+        this.roomCalendar = roomCalendar;
+        this.holdService = holdService;
     }
 
     public static class AvailabilityRequest {
         private String requestId;
         private String startDate;
         private String endDate;
+        private Long holdTtlSeconds;
 
         public String getRequestId() { return requestId; }
         public String getStartDate() { return startDate; }
         public String getEndDate() { return endDate; }
+        public Long getHoldTtlSeconds() { return holdTtlSeconds; }
 
         public void setRequestId(String requestId) { this.requestId = requestId; }
         public void setStartDate(String startDate) { this.startDate = startDate; }
         public void setEndDate(String endDate) { this.endDate = endDate; }
+        public void setHoldTtlSeconds(Long holdTtlSeconds) { this.holdTtlSeconds = holdTtlSeconds; }
+
+        Duration holdTtl() {
+            if (holdTtlSeconds == null) return null;
+            if (holdTtlSeconds <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "holdTtlSeconds must be positive");
+            }
+            return Duration.ofSeconds(holdTtlSeconds);
+        }
+    }
+
+    public static class BatchAvailabilityRequest {
+        private String startDate;
+        private String endDate;
+        private List<Long> roomIds;
+
+        public String getStartDate() { return startDate; }
+        public String getEndDate() { return endDate; }
+        public List<Long> getRoomIds() { return roomIds; }
+
+        public void setStartDate(String startDate) { this.startDate = startDate; }
+        public void setEndDate(String endDate) { this.endDate = endDate; }
+        public void setRoomIds(List<Long> roomIds) { this.roomIds = roomIds; }
+    }
+
+    public static class BatchReleaseRequest {
+        private List<String> requestIds;
+
+        public List<String> getRequestIds() { return requestIds; }
+
+        public void setRequestIds(List<String> requestIds) { this.requestIds = requestIds; }
+    }
+
+    public static class BatchReleaseResponse {
+        private int released;
+
+        public BatchReleaseResponse() {}
+
+        public BatchReleaseResponse(int released) {
+            this.released = released;
+        }
+
+        public int getReleased() { return released; }
+
+        public void setReleased(int released) { this.released = released; }
+    }
+
+    public static class BatchCommitResponse {
+        private int committed;
+        private List<String> missing;
+
+        public BatchCommitResponse() {}
+
+        public BatchCommitResponse(int committed, List<String> missing) {
+            this.committed = committed;
+            this.missing = missing;
+        }
+
+        public int getCommitted() { return committed; }
+        public List<String> getMissing() { return missing; }
+
+        public void setCommitted(int committed) { this.committed = committed; }
+        public void setMissing(List<String> missing) { this.missing = missing; }
+    }
+
+    public static class RoomAvailabilityDto {
+        private Long roomId;
+        private boolean available;
+
+        public RoomAvailabilityDto() {}
+
+        public RoomAvailabilityDto(Long roomId, boolean available) {
+            this.roomId = roomId;
+            this.available = available;
+        }
+
+        public Long getRoomId() { return roomId; }
+        public boolean isAvailable() { return available; }
+
+        public void setRoomId(Long roomId) { this.roomId = roomId; }
+        public void setAvailable(boolean available) { this.available = available; }
+    }
+
+    @PostMapping("/availability")
+    public List<RoomAvailabilityDto> availability(@RequestBody BatchAvailabilityRequest req) {
+        if (req.getStartDate() == null || req.getEndDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startDate/endDate are required");
+        }
+        if (req.getRoomIds() == null || req.getRoomIds().isEmpty()) {
+            return List.of();
+        }
+
+        var start = LocalDate.parse(req.getStartDate());
+        var end = LocalDate.parse(req.getEndDate());
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startDate must be before endDate");
+        }
+
+        var enabled = new HashSet<Long>();
+        roomRepository.findAllById(req.getRoomIds()).forEach(room -> {
+            if (room.isAvailable()) enabled.add(room.getId());
+        });
+        var free = new HashSet<>(roomCalendar.freeRooms(enabled, start, end));
+
+        return req.getRoomIds().stream()
+                .map(roomId -> new RoomAvailabilityDto(roomId, free.contains(roomId)))
+                .toList();
+    }
+
+    public static class AutoHoldResponse {
+        private Long roomId;
+
+        public AutoHoldResponse() {}
+
+        public AutoHoldResponse(Long roomId) {
+            this.roomId = roomId;
+        }
+
+        public Long getRoomId() { return roomId; }
+
+        public void setRoomId(Long roomId) { this.roomId = roomId; }
     }
 
     @PostMapping("/{id}/confirm-availability")
-    @Transactional
     public void confirm(@PathVariable Long id, @RequestBody AvailabilityRequest req) {
         if (req.getRequestId() == null || req.getRequestId().isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "requestId is required");
         }
 
-        var start = java.time.LocalDate.parse(req.getStartDate());
-        var end = java.time.LocalDate.parse(req.getEndDate());
+        var start = LocalDate.parse(req.getStartDate());
+        var end = LocalDate.parse(req.getEndDate());
         if (!start.isBefore(end)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startDate must be before endDate");
         }
@@ -59,53 +189,31 @@ public class RoomInternalController {
                 req.getEndDate()
         );
 
-        var existing = holdRepository.findByRequestId(req.getRequestId());
-        if (existing.isPresent()) {
-            if (existing.get().getStatus() == RoomHold.HoldStatus.HOLD) {
-                log.info("Idempotent confirm request detected, skipping: requestId={}", req.getRequestId());
-                return;
-            }
-            log.warn("Confirm received for already RELEASED hold: requestId={}", req.getRequestId());
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Hold already released");
-        }
-
-        Room room = roomRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Room not found"));
+        holdService.confirm(id, req.getRequestId(), start, end, req.holdTtl());
+    }
 
-        if (!room.isAvailable()) {
-            log.warn("Room disabled (available=false): roomId={}, requestId={}", id, req.getRequestId());
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Room is disabled (available=false)");
+    @PostMapping("/auto-hold")
+    public AutoHoldResponse autoHold(@RequestBody AvailabilityRequest req) {
+        if (req.getRequestId() == null || req.getRequestId().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "requestId is required");
         }
 
-        boolean overlap = holdRepository.existsByRoomIdAndStatusAndStartDateLessThanAndEndDateGreaterThan(
-                room.getId(),
-                RoomHold.HoldStatus.HOLD,
-                end,
-                start
-        );
-        if (overlap) {
-            log.warn("Room not available for requested dates: roomId={}, requestId={}", id, req.getRequestId());
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Room is already booked for these dates");
-        }
-
-        RoomHold hold = new RoomHold();
-        hold.setRequestId(req.getRequestId());
-        hold.setRoom(room);
-        hold.setStartDate(start);
-        hold.setEndDate(end);
-        hold.setStatus(RoomHold.HoldStatus.HOLD);
-        holdRepository.save(hold);
+        var start = LocalDate.parse(req.getStartDate());
+        var end = LocalDate.parse(req.getEndDate());
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startDate must be before endDate");
+        }
         log.info(
-                "Room hold created: roomId={}, requestId={}, startDate={}, endDate={}",
-                id, req.getRequestId(), start, end
+                "Auto-hold request: requestId={}, startDate={}, endDate={}",
+                req.getRequestId(),
+                req.getStartDate(),
+                req.getEndDate()
         );
 
-        room.setTimesBooked(room.getTimesBooked() + 1);
-        roomRepository.save(room);
+        return new AutoHoldResponse(holdService.holdBestRoom(req.getRequestId(), start, end, req.holdTtl()));
     }
 
     @PostMapping("/{id}/release")
-    @Transactional
     public void release(@PathVariable Long id, @RequestBody AvailabilityRequest req) {
         if (req.getRequestId() == null || req.getRequestId().isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "requestId is required");
@@ -116,24 +224,45 @@ public class RoomInternalController {
                 req.getRequestId()
         );
 
-        var holdOpt = holdRepository.findByRequestId(req.getRequestId());
-        if (holdOpt.isEmpty()) return;
+        holdService.release(id, req.getRequestId());
+    }
+
+    @PostMapping("/release")
+    public void releaseByRequestId(@RequestBody AvailabilityRequest req) {
+        if (req.getRequestId() == null || req.getRequestId().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "requestId is required");
+        }
+        log.info("Release request received: requestId={}", req.getRequestId());
+
+        holdService.release(null, req.getRequestId());
+    }
 
-        var hold = holdOpt.get();
-        if (!hold.getRoom().getId().equals(id)) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "requestId belongs to another room");
+    @PostMapping("/release-batch")
+    public BatchReleaseResponse releaseBatch(@RequestBody BatchReleaseRequest req) {
+        if (req.getRequestIds() == null || req.getRequestIds().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "requestIds are required");
+        }
+        if (req.getRequestIds().size() > MAX_BATCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "too many requestIds, max " + MAX_BATCH);
         }
+        log.info("Batch release request received: requestIds={}", req.getRequestIds().size());
 
-        if (hold.getStatus() == RoomHold.HoldStatus.RELEASED) {
-            log.info(
-                    "Hold already released (idempotent): requestId={}",
-                    req.getRequestId()
-            );
-            return;
+        return new BatchReleaseResponse(holdService.releaseAll(req.getRequestIds()));
+    }
+
+    // same body as release-batch: the requestIds whose bookings are about to be CONFIRMED;
+    // missing lists the ones whose hold is gone, and those bookings must not be confirmed
+    @PostMapping("/commit-batch")
+    public BatchCommitResponse commitBatch(@RequestBody BatchReleaseRequest req) {
+        if (req.getRequestIds() == null || req.getRequestIds().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "requestIds are required");
+        }
+        if (req.getRequestIds().size() > MAX_BATCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "too many requestIds, max " + MAX_BATCH);
         }
+        log.info("Batch commit request received: requestIds={}", req.getRequestIds().size());
 
-        hold.setStatus(RoomHold.HoldStatus.RELEASED);
-        holdRepository.save(hold);
-        log.info("Hold released: roomId={}, requestId={}", id, req.getRequestId());
+        List<String> missing = holdService.commitAll(req.getRequestIds());
+        return new BatchCommitResponse((int) req.getRequestIds().stream().distinct().count() - missing.size(), missing);
     }
-}
\ No newline at end of file
+}
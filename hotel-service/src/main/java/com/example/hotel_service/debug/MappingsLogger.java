@@ -1,5 +1,6 @@
 package com.example.hotel_service.debug;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,7 +10,7 @@ import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandl
 public class MappingsLogger {
 
     @Bean
-    public ApplicationRunner logMappings(RequestMappingHandlerMapping mapping) {
+    public ApplicationRunner logMappings(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping mapping) {
         return args -> mapping.getHandlerMethods().forEach((info, method) -> {
             System.out.println("MAPPING: " + info + " -> " + method);
         });
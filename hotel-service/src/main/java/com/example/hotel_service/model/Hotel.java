@@ -7,7 +7,8 @@ import jakarta.persistence.*;
 public class Hotel {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hotels_seq")
+    @SequenceGenerator(name = "hotels_seq", sequenceName = "hotels_seq", allocationSize = 50)
     private Long id;
 
     private String name;
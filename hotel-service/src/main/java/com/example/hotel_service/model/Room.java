@@ -7,7 +7,8 @@ import jakarta.persistence.*;
 public class Room {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rooms_seq")
+    @SequenceGenerator(name = "rooms_seq", sequenceName = "rooms_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -18,7 +19,8 @@ public class Room {
 
     private boolean available = true;
 
-    @Column(name = "times_booked")
+    // only RoomBookingCounters writes this column, so saving a room loaded earlier cannot undo a flush
+    @Column(name = "times_booked", updatable = false)
     private long timesBooked = 0;
 
     public Room() {
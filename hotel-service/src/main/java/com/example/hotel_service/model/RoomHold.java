@@ -1,6 +1,7 @@
 package com.example.hotel_service.model;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
@@ -13,7 +14,8 @@ import java.time.LocalDate;
 public class RoomHold {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_holds_seq")
+    @SequenceGenerator(name = "room_holds_seq", sequenceName = "room_holds_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "request_id", nullable = false, updatable = false)
@@ -33,6 +35,9 @@ public class RoomHold {
     @Column(nullable = false)
     private HoldStatus status = HoldStatus.HOLD;
 
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
     public enum HoldStatus { HOLD, RELEASED }
 
     public RoomHold() {}
@@ -84,4 +89,12 @@ public class RoomHold {
     public void setStatus(HoldStatus status) {
         this.status = status;
     }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
 }
@@ -1,10 +1,25 @@
 package com.example.hotel_service.repository;
 
 import com.example.hotel_service.model.Hotel;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface HotelRepository extends JpaRepository<Hotel, Long> {
     Optional<Hotel> findByName(String name);
+
+    List<Hotel> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @Query("select h from Hotel h where h.id > :after order by h.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<Hotel> streamByIdGreaterThan(@Param("after") Long after);
 }
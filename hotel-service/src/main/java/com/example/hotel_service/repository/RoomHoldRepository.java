@@ -1,14 +1,24 @@
 package com.example.hotel_service.repository;
 
 import com.example.hotel_service.model.RoomHold;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface RoomHoldRepository extends JpaRepository<RoomHold, Long> {
     Optional<RoomHold> findByRequestId(String requestId);
 
+    List<RoomHold> findByRequestIdInAndStatus(Collection<String> requestIds, RoomHold.HoldStatus status);
+
     boolean existsByRoomIdAndStatusAndStartDateLessThanAndEndDateGreaterThan(
             Long roomId,
             RoomHold.HoldStatus status,
@@ -16,10 +26,37 @@ public interface RoomHoldRepository extends JpaRepository<RoomHold, Long> {
             LocalDate startDateExclusive
     );
 
-    long countByRoomIdAndStatusAndStartDateLessThanEqualAndEndDateGreaterThan(
-            Long roomId,
+    List<RoomHold> findByStatusAndExpiresAtLessThanEqualOrderByExpiresAtAsc(
             RoomHold.HoldStatus status,
-            LocalDate today,
-            LocalDate today2
+            Instant now,
+            Limit limit
     );
+
+    long countByStatusAndExpiresAtLessThanEqual(RoomHold.HoldStatus status, Instant now);
+
+    // conditional on the lease still being held and lapsed, so it cannot undo a commit or release made since the read
+    @Transactional
+    @Modifying
+    @Query("update RoomHold h set h.status = :released where h.id = :id and h.status = :held and h.expiresAt <= :now")
+    int releaseIfExpired(@Param("id") Long id,
+                         @Param("now") Instant now,
+                         @Param("held") RoomHold.HoldStatus held,
+                         @Param("released") RoomHold.HoldStatus released);
+
+    @Transactional
+    @Modifying
+    @Query("update RoomHold h set h.expiresAt = null " +
+            "where h.requestId in :requestIds and h.status = :held and h.expiresAt is not null")
+    int clearLeases(@Param("requestIds") Collection<String> requestIds, @Param("held") RoomHold.HoldStatus held);
+
+    @Query("select h.room.id as roomId, h.requestId as requestId, h.startDate as startDate, h.endDate as endDate " +
+            "from RoomHold h where h.status = :status")
+    List<HoldRange> findRangesByStatus(@Param("status") RoomHold.HoldStatus status);
+
+    interface HoldRange {
+        Long getRoomId();
+        String getRequestId();
+        LocalDate getStartDate();
+        LocalDate getEndDate();
+    }
 }
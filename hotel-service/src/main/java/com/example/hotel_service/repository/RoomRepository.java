@@ -1,10 +1,55 @@
 package com.example.hotel_service.repository;
 
 import com.example.hotel_service.model.Room;
+import com.example.hotel_service.model.RoomHold;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface RoomRepository extends JpaRepository<Room, Long> {
     List<Room> findByAvailableTrue();
+
+    // row lock on the room: serializes holds on one room across replicas sharing the database
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Room r where r.id = :id")
+    Optional<Room> findByIdForUpdate(@Param("id") Long id);
+
+    List<Room> findByHotelIdAndAvailableTrue(Long hotelId);
+
+    List<Room> findByAvailableTrueAndIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @Query("select r from Room r join fetch r.hotel where r.available = true and r.id > :after order by r.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<Room> streamAvailableByIdGreaterThan(@Param("after") Long after);
+
+    @Query("select r.id as roomId, h.id as hotelId, h.name as hotelName, r.number as number, " +
+            "r.available as available, r.timesBooked as timesBooked, count(rh.id) as activeHoldsToday " +
+            "from Room r join r.hotel h " +
+            "left join RoomHold rh on rh.room = r and rh.status = :status " +
+            "and rh.startDate <= :today and rh.endDate > :today " +
+            "group by r.id, h.id, h.name, r.number, r.available, r.timesBooked " +
+            "order by r.id")
+    List<RoomStatsRow> findStats(@Param("status") RoomHold.HoldStatus status, @Param("today") LocalDate today);
+
+    interface RoomStatsRow {
+        Long getRoomId();
+        Long getHotelId();
+        String getHotelName();
+        String getNumber();
+        boolean isAvailable();
+        long getTimesBooked();
+        long getActiveHoldsToday();
+    }
 }
@@ -1,5 +1,7 @@
 package com.example.hotel_service.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -49,12 +51,14 @@ public class SecurityConfig {
 
     @Bean
     public JwtDecoder jwtDecoder(@Value("${app.jwt.secret}") String secret,
-                                 @Value("${app.jwt.issuer}") String issuer) {
+                                 @Value("${app.jwt.issuer}") String issuer,
+                                 @Value("${app.jwt.cache.max-size:10000}") long cacheMaxSize,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
 
         var key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
         NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
         decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
-        return decoder;
+        return new CachingJwtDecoder(decoder, cacheMaxSize, meterRegistry.getIfAvailable());
     }
 
     @Bean
@@ -0,0 +1,86 @@
+package com.example.hotel_service.stats;
+
+import com.example.hotel_service.availability.RoomBookingCounters;
+import com.example.hotel_service.model.RoomHold;
+import com.example.hotel_service.repository.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admin room statistics computed by one aggregate query and reused until older than app.stats.refresh-ms.
+ * Only one caller rebuilds an expired snapshot; the others wait for it instead of querying too.
+ */
+@Component
+public class RoomStatsSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomStatsSnapshot.class);
+
+    /**
+     * timesBooked values include the increments that were still in memory when the rows were read,
+     * so every figure is as of {@code builtAt}.
+     */
+    public record Snapshot(List<RoomRepository.RoomStatsRow> rows, Map<Long, Long> unflushed, Instant builtAt) {
+        public long timesBooked(RoomRepository.RoomStatsRow row) {
+            return row.getTimesBooked() + unflushed.getOrDefault(row.getRoomId(), 0L);
+        }
+    }
+
+    private final RoomRepository roomRepository;
+    private final RoomBookingCounters counters;
+    private final Duration maxAge;
+    // not synchronized: a virtual thread blocked in JDBC inside a monitor pins its carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot current;
+
+    public RoomStatsSnapshot(RoomRepository roomRepository,
+                             RoomBookingCounters counters,
+                             @Value("${app.stats.refresh-ms:30000}") long refreshMs) {
+        this.roomRepository = roomRepository;
+        this.counters = counters;
+        this.maxAge = Duration.ofMillis(refreshMs);
+    }
+
+    public Snapshot get() {
+        Snapshot snapshot = current;
+        if (snapshot == null || isStale(snapshot)) {
+            rebuildLock.lock();
+            try {
+                snapshot = current;
+                if (snapshot == null || isStale(snapshot)) {
+                    snapshot = build();
+                    current = snapshot;
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    private boolean isStale(Snapshot snapshot) {
+        return snapshot.builtAt().plus(maxAge).isBefore(Instant.now());
+    }
+
+    private Snapshot build() {
+        long started = System.nanoTime();
+        Snapshot snapshot = counters.withoutFlush(() -> {
+            List<RoomRepository.RoomStatsRow> rows = roomRepository.findStats(RoomHold.HoldStatus.HOLD, LocalDate.now());
+            Map<Long, Long> unflushed = new HashMap<>();
+            rows.forEach(row -> unflushed.put(row.getRoomId(), counters.unflushed(row.getRoomId())));
+            return new Snapshot(rows, unflushed, Instant.now());
+        });
+        log.info("Room stats snapshot built: rooms={}, took={}ms",
+                snapshot.rows().size(), (System.nanoTime() - started) / 1_000_000);
+        return snapshot;
+    }
+}
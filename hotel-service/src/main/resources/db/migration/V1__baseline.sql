@@ -0,0 +1,29 @@
+CREATE TABLE hotels (
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(255),
+    address VARCHAR(255)
+);
+
+CREATE TABLE rooms (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hotel_id     BIGINT       NOT NULL,
+    number       VARCHAR(255),
+    available    BOOLEAN      NOT NULL,
+    times_booked BIGINT       NOT NULL,
+    CONSTRAINT fk_rooms_hotel FOREIGN KEY (hotel_id) REFERENCES hotels (id)
+);
+
+CREATE TABLE room_holds (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    request_id VARCHAR(255)                NOT NULL,
+    room_id    BIGINT                      NOT NULL,
+    start_date DATE                        NOT NULL,
+    end_date   DATE                        NOT NULL,
+    status     VARCHAR(255)                NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT uk_room_hold_request UNIQUE (request_id),
+    CONSTRAINT fk_room_holds_room FOREIGN KEY (room_id) REFERENCES rooms (id)
+);
+
+-- overlap check and room stats: room_id = ? and status = ? and start_date < ? and end_date > ?
+CREATE INDEX idx_room_holds_room_status_dates ON room_holds (room_id, status, start_date, end_date);
@@ -0,0 +1,8 @@
+INSERT INTO hotels (id, name, address) VALUES (1, 'Hilton', 'Moscow');
+
+INSERT INTO rooms (id, hotel_id, number, available, times_booked) VALUES (1, 1, '101', TRUE, 0);
+INSERT INTO rooms (id, hotel_id, number, available, times_booked) VALUES (2, 1, '102', TRUE, 0);
+
+-- explicit ids do not advance H2 identity columns
+ALTER TABLE hotels ALTER COLUMN id RESTART WITH 2;
+ALTER TABLE rooms ALTER COLUMN id RESTART WITH 3;
@@ -0,0 +1,5 @@
+-- pooled id generation so Hibernate can batch inserts; INCREMENT BY must match allocationSize on the entities.
+-- hotels and rooms start at 100: the first pooled block is 51..100, clear of the ids seeded in V2
+CREATE SEQUENCE hotels_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE rooms_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE room_holds_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,68 @@
+package com.example.hotel_service.availability;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RoomBookingCountersTest {
+
+    JdbcTemplate jdbcTemplate;
+    RoomBookingCounters counters;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        counters = new RoomBookingCounters(jdbcTemplate, Mockito.mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void flush_writesPendingDeltas_andClearsThem() {
+        counters.increment(1L);
+        counters.increment(1L);
+        counters.increment(2L);
+
+        counters.flush();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        assertEquals(0, counters.unflushed(1L));
+        assertEquals(0, counters.unflushed(2L));
+    }
+
+    @Test
+    void failedFlush_keepsDeltasForTheNextOne() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+        counters.increment(1L);
+        counters.increment(1L);
+
+        counters.flush();
+
+        assertEquals(2, counters.unflushed(1L));
+    }
+
+    @Test
+    void flush_waitsForReadsInsideWithoutFlush() throws Exception {
+        counters.increment(1L);
+        CompletableFuture<Void> flush = new CompletableFuture<>();
+
+        counters.withoutFlush(() -> {
+            CompletableFuture.runAsync(counters::flush).whenComplete((ok, e) -> flush.complete(null));
+            assertThrows(Exception.class, () -> flush.get(200, TimeUnit.MILLISECONDS));
+            assertEquals(1, counters.unflushed(1L));
+            return null;
+        });
+
+        flush.get(5, TimeUnit.SECONDS);
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        assertEquals(0, counters.unflushed(1L));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.RoomHold;
+import com.example.hotel_service.repository.RoomHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomCalendarTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    RoomHoldRepository repository;
+    RoomHoldIndex index;
+    RoomCalendar calendar;
+
+    @BeforeEach
+    void setup() {
+        repository = Mockito.mock(RoomHoldRepository.class);
+        index = new RoomHoldIndex(repository);
+        calendar = new RoomCalendar(repository, index, 365);
+    }
+
+    private void hold(Long roomId, String requestId, LocalDate start, LocalDate end) {
+        RoomHoldEvent event = new RoomHoldEvent(RoomHoldEvent.Kind.CREATED, roomId, requestId, start, end);
+        index.onHoldChanged(event);
+        calendar.onHoldChanged(event);
+    }
+
+    @Test
+    void freeRooms_excludesRoomsHeldInRange_acrossWordBoundaries() {
+        hold(1L, "a", TODAY.plusDays(60), TODAY.plusDays(70));
+        hold(2L, "b", TODAY.plusDays(10), TODAY.plusDays(12));
+
+        List<Long> free = calendar.freeRooms(List.of(1L, 2L, 3L), TODAY.plusDays(63), TODAY.plusDays(65));
+        assertEquals(List.of(2L, 3L), free);
+
+        assertTrue(calendar.isFree(1L, TODAY.plusDays(70), TODAY.plusDays(72)));
+        assertFalse(calendar.isFree(1L, TODAY.plusDays(50), TODAY.plusDays(61)));
+    }
+
+    @Test
+    void release_clearsNights() {
+        hold(1L, "a", TODAY.plusDays(1), TODAY.plusDays(3));
+
+        calendar.onHoldChanged(new RoomHoldEvent(RoomHoldEvent.Kind.RELEASED, 1L, "a", TODAY.plusDays(1), TODAY.plusDays(3)));
+
+        assertTrue(calendar.isFree(1L, TODAY, TODAY.plusDays(5)));
+    }
+
+    @Test
+    void rangesBeyondHorizon_fallBackToIntervalIndex() {
+        hold(1L, "a", TODAY.plusDays(400), TODAY.plusDays(405));
+
+        assertFalse(calendar.isFree(1L, TODAY.plusDays(360), TODAY.plusDays(402)));
+        assertTrue(calendar.isFree(1L, TODAY.plusDays(405), TODAY.plusDays(410)));
+    }
+
+    @Test
+    void releasingOneOfOverlappingLegacyHolds_keepsTheOthersNights() {
+        hold(1L, "a", TODAY.plusDays(1), TODAY.plusDays(5));
+        hold(1L, "b", TODAY.plusDays(3), TODAY.plusDays(7));
+
+        RoomHoldEvent released = new RoomHoldEvent(RoomHoldEvent.Kind.RELEASED, 1L, "a", TODAY.plusDays(1), TODAY.plusDays(5));
+        calendar.onHoldChanged(released);
+        index.onHoldChanged(released);
+
+        assertTrue(calendar.isFree(1L, TODAY.plusDays(1), TODAY.plusDays(3)));
+        assertFalse(calendar.isFree(1L, TODAY.plusDays(4), TODAY.plusDays(5)));
+    }
+
+    @Test
+    void roll_rebuildsTheWindowFromTheTable() {
+        RoomHoldRepository.HoldRange range = Mockito.mock(RoomHoldRepository.HoldRange.class);
+        Mockito.when(range.getRoomId()).thenReturn(1L);
+        Mockito.when(range.getStartDate()).thenReturn(TODAY.plusDays(2));
+        Mockito.when(range.getEndDate()).thenReturn(TODAY.plusDays(4));
+        Mockito.when(repository.findRangesByStatus(RoomHold.HoldStatus.HOLD)).thenReturn(List.of(range));
+
+        calendar.roll();
+
+        assertFalse(calendar.isFree(1L, TODAY.plusDays(3), TODAY.plusDays(5)));
+        assertTrue(calendar.isFree(1L, TODAY.plusDays(4), TODAY.plusDays(6)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.Hotel;
+import com.example.hotel_service.model.Room;
+import com.example.hotel_service.model.RoomHold;
+import com.example.hotel_service.repository.HotelRepository;
+import com.example.hotel_service.repository.RoomHoldRepository;
+import com.example.hotel_service.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "spring.sql.init.mode=never"
+})
+class RoomHoldExpiryTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(3);
+
+    @Autowired RoomHoldService holdService;
+    @Autowired RoomHoldIndex holdIndex;
+    @Autowired HotelRepository hotelRepository;
+    @Autowired RoomRepository roomRepository;
+    @Autowired RoomHoldRepository holdRepository;
+
+    Long roomId;
+
+    @BeforeEach
+    void setup() {
+        holdRepository.deleteAll();
+        roomRepository.deleteAll();
+        hotelRepository.deleteAll();
+        holdIndex.reload();
+
+        Hotel hotel = new Hotel();
+        hotel.setName("Expiry");
+        Hotel savedHotel = hotelRepository.save(hotel);
+
+        Room room = new Room();
+        room.setHotel(savedHotel);
+        room.setNumber("E1");
+        roomId = roomRepository.save(room).getId();
+    }
+
+    @Test
+    void expireBatch_releasesOnlyExpiredHolds_andFreesTheRoom() {
+        holdService.confirm(roomId, "ttl", START, START.plusDays(2), Duration.ofSeconds(30));
+        holdService.confirm(roomId, "permanent", START.plusDays(5), START.plusDays(6), null);
+
+        assertEquals(0, holdService.expireBatch(Instant.now(), 10));
+        assertEquals(1, holdService.expireBatch(Instant.now().plusSeconds(60), 10));
+
+        assertEquals(RoomHold.HoldStatus.RELEASED, holdRepository.findByRequestId("ttl").orElseThrow().getStatus());
+        assertEquals(RoomHold.HoldStatus.HOLD, holdRepository.findByRequestId("permanent").orElseThrow().getStatus());
+        assertFalse(holdIndex.overlaps(roomId, START, START.plusDays(2)));
+        assertTrue(holdIndex.overlaps(roomId, START.plusDays(5), START.plusDays(6)));
+    }
+
+    @Test
+    void commitAll_clearsTheLease_soTheSweeperKeepsTheHold() {
+        holdService.confirm(roomId, "confirmed", START, START.plusDays(2), Duration.ofSeconds(30));
+        holdService.confirm(roomId, "abandoned", START.plusDays(5), START.plusDays(6), Duration.ofSeconds(30));
+
+        assertEquals(List.of("unknown"), holdService.commitAll(List.of("confirmed", "unknown")));
+        assertEquals(1, holdService.expireBatch(Instant.now().plusSeconds(60), 10));
+
+        assertEquals(RoomHold.HoldStatus.HOLD, holdRepository.findByRequestId("confirmed").orElseThrow().getStatus());
+        assertNull(holdRepository.findByRequestId("confirmed").orElseThrow().getExpiresAt());
+        assertEquals(RoomHold.HoldStatus.RELEASED, holdRepository.findByRequestId("abandoned").orElseThrow().getStatus());
+    }
+
+    @Test
+    void commitAll_reportsAHoldThatLapsedFirst_asMissing() {
+        holdService.confirm(roomId, "late", START, START.plusDays(2), Duration.ofSeconds(30));
+        assertEquals(1, holdService.expireBatch(Instant.now().plusSeconds(60), 10));
+
+        assertEquals(List.of("late"), holdService.commitAll(List.of("late")));
+        assertEquals(RoomHold.HoldStatus.RELEASED, holdRepository.findByRequestId("late").orElseThrow().getStatus());
+    }
+
+    @Test
+    void expiry_doesNotOverwriteACommitMadeAfterTheSweepRead() {
+        holdService.confirm(roomId, "raced", START, START.plusDays(2), Duration.ofSeconds(30));
+        Long id = holdRepository.findByRequestId("raced").orElseThrow().getId();
+        Instant later = Instant.now().plusSeconds(60);
+
+        // the sweeper has read the lapsed hold, then booking-service commits it before the release lands
+        assertEquals(List.of(), holdService.commitAll(List.of("raced")));
+        assertEquals(0, holdRepository.releaseIfExpired(id, later, RoomHold.HoldStatus.HOLD, RoomHold.HoldStatus.RELEASED));
+
+        assertEquals(0, holdService.expireBatch(later, 10));
+        assertEquals(RoomHold.HoldStatus.HOLD, holdRepository.findByRequestId("raced").orElseThrow().getStatus());
+        assertTrue(holdIndex.overlaps(roomId, START, START.plusDays(2)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.repository.RoomHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomHoldIndexTest {
+
+    private static final LocalDate D1 = LocalDate.of(2026, 4, 1);
+
+    RoomHoldIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new RoomHoldIndex(Mockito.mock(RoomHoldRepository.class));
+    }
+
+    @Test
+    void overlaps_usesHalfOpenRanges() {
+        index.add(10L, "r1", D1, D1.plusDays(3));
+
+        assertTrue(index.overlaps(10L, D1.plusDays(2), D1.plusDays(5)));
+        assertTrue(index.overlaps(10L, D1.minusDays(1), D1.plusDays(1)));
+        assertFalse(index.overlaps(10L, D1.plusDays(3), D1.plusDays(4)));
+        assertFalse(index.overlaps(10L, D1.minusDays(2), D1));
+        assertFalse(index.overlaps(11L, D1, D1.plusDays(3)));
+    }
+
+    @Test
+    void overlaps_findsLongRangeHiddenBehindLaterStarts() {
+        index.add(10L, "long", D1, D1.plusDays(30));
+        index.add(10L, "short", D1.plusDays(5), D1.plusDays(6));
+
+        assertTrue(index.overlaps(10L, D1.plusDays(20), D1.plusDays(21)));
+    }
+
+    @Test
+    void remove_freesRangeAndIsIdempotent() {
+        index.add(10L, "r1", D1, D1.plusDays(3));
+        index.add(10L, "r2", D1.plusDays(5), D1.plusDays(7));
+
+        index.remove(10L, "r1");
+        index.remove(10L, "r1");
+
+        assertFalse(index.overlaps(10L, D1, D1.plusDays(3)));
+        assertTrue(index.overlaps(10L, D1.plusDays(6), D1.plusDays(8)));
+    }
+
+    @Test
+    void onHoldChanged_appliesCreatedAndReleased() {
+        index.onHoldChanged(new RoomHoldEvent(RoomHoldEvent.Kind.CREATED, 10L, "r1", D1, D1.plusDays(2)));
+        assertTrue(index.overlaps(10L, D1, D1.plusDays(1)));
+
+        index.onHoldChanged(new RoomHoldEvent(RoomHoldEvent.Kind.RELEASED, 10L, "r1", D1, D1.plusDays(2)));
+        assertFalse(index.overlaps(10L, D1, D1.plusDays(1)));
+    }
+}
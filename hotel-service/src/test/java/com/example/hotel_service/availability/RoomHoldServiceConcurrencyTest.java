@@ -0,0 +1,247 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.Hotel;
+import com.example.hotel_service.model.Room;
+import com.example.hotel_service.model.RoomHold;
+import com.example.hotel_service.repository.HotelRepository;
+import com.example.hotel_service.repository.RoomHoldRepository;
+import com.example.hotel_service.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "spring.sql.init.mode=never",
+        "spring.jpa.show-sql=false"
+})
+class RoomHoldServiceConcurrencyTest {
+
+    private static final int ROOMS = 8;
+    private static final int REQUESTS_PER_THREAD = 200;
+    private static final LocalDate BASE = LocalDate.now().plusDays(1);
+
+    @Autowired RoomHoldService holdService;
+    @Autowired RoomHoldIndex holdIndex;
+    @Autowired RoomBookingCounters counters;
+    @Autowired HotelRepository hotelRepository;
+    @Autowired RoomRepository roomRepository;
+    @Autowired RoomHoldRepository holdRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    List<Long> roomIds;
+
+    @BeforeEach
+    void setup() {
+        holdRepository.deleteAll();
+        roomRepository.deleteAll();
+        hotelRepository.deleteAll();
+        holdIndex.reload();
+
+        Hotel hotel = new Hotel();
+        hotel.setName("Stress");
+        hotel.setAddress("Test");
+        Hotel savedHotel = hotelRepository.save(hotel);
+
+        roomIds = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            Room room = new Room();
+            room.setHotel(savedHotel);
+            room.setNumber("S" + i);
+            roomIds.add(roomRepository.save(room).getId());
+        }
+    }
+
+    @Test
+    void concurrentConfirms_neverDoubleHold() throws Exception {
+        int run = 0;
+        for (int threads : new int[]{1, 2, 4, 8, 16}) {
+            // each run books its own date window so earlier runs do not turn it into pure conflicts
+            Run result = confirmConcurrently(threads, "t" + threads, BASE.plusDays(130L * run++));
+            assertNoOverlappingHolds();
+            assertTimesBookedMatchesHolds();
+            assertTrue(result.held() > 0);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void confirmThroughput_byThreadCount() throws Exception {
+        // warm-up: JIT, connection pool, Hibernate statement cache
+        confirmConcurrently(4, "warmup", BASE);
+
+        int run = 1;
+        for (int threads : new int[]{1, 2, 4, 8, 16}) {
+            int requests = threads * REQUESTS_PER_THREAD;
+            Run result = confirmConcurrently(threads, "b" + threads, BASE.plusDays(130L * run++));
+            System.out.printf("CONFIRM THROUGHPUT: threads=%d, requests=%d, held=%d, conflicts=%d, throughput=%.0f confirms/s%n",
+                    threads, requests, result.held(), result.conflicts(), requests / result.seconds());
+        }
+        assertNoOverlappingHolds();
+    }
+
+    @Test
+    void confirm_seesHoldsCommittedByAnotherReplica() {
+        Long roomId = roomIds.get(0);
+        LocalDate from = BASE.plusDays(800);
+
+        // written straight to the table, as another instance would: this JVM's index never hears of it
+        RoomHold foreign = new RoomHold();
+        foreign.setRequestId("other-replica");
+        foreign.setRoom(roomRepository.findById(roomId).orElseThrow());
+        foreign.setStartDate(from);
+        foreign.setEndDate(from.plusDays(3));
+        foreign.setStatus(RoomHold.HoldStatus.HOLD);
+        holdRepository.save(foreign);
+        assertFalse(holdIndex.overlaps(roomId, from, from.plusDays(3)));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> holdService.confirm(roomId, "this-replica", from.plusDays(1), from.plusDays(2), null));
+        assertEquals(409, ex.getStatusCode().value());
+    }
+
+    @Test
+    void hedgedConfirms_withSameRequestId_bothSucceedWithOneHold() throws Exception {
+        Long roomId = roomIds.get(1);
+        LocalDate from = BASE.plusDays(900);
+        CountDownLatch locked = new CountDownLatch(1);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // the other replica got the room row lock first and commits the same hold a moment later
+        CompletableFuture<Void> otherReplica = CompletableFuture.runAsync(() -> tx.executeWithoutResult(status -> {
+            RoomHold hold = new RoomHold();
+            hold.setRequestId("hedged");
+            hold.setRoom(roomRepository.findByIdForUpdate(roomId).orElseThrow());
+            hold.setStartDate(from);
+            hold.setEndDate(from.plusDays(2));
+            hold.setStatus(RoomHold.HoldStatus.HOLD);
+            holdRepository.save(hold);
+            locked.countDown();
+            sleep(300);
+        }));
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        holdService.confirm(roomId, "hedged", from, from.plusDays(2), null);
+        otherReplica.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, holdRepository.findAll().stream().filter(h -> h.getRequestId().equals("hedged")).count());
+    }
+
+    @Test
+    void concurrentConfirms_withSameRequestId_inOneReplica_bothSucceed() throws Exception {
+        Long roomId = roomIds.get(2);
+        LocalDate from = BASE.plusDays(950);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                holdService.confirm(roomId, "duplicate", from, from.plusDays(2), null);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(1, holdRepository.findAll().stream().filter(h -> h.getRequestId().equals("duplicate")).count());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Run(int held, int conflicts, double seconds) {}
+
+    private Run confirmConcurrently(int threads, String prefix, LocalDate window) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    Long roomId = roomIds.get(random.nextInt(ROOMS));
+                    LocalDate from = window.plusDays(random.nextInt(120));
+                    try {
+                        holdService.confirm(roomId, prefix + "-" + thread + "-" + i, from, from.plusDays(1 + random.nextInt(4)), null);
+                        held.incrementAndGet();
+                    } catch (ResponseStatusException ex) {
+                        assertEquals(409, ex.getStatusCode().value());
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+
+        assertEquals(threads * REQUESTS_PER_THREAD, held.get() + conflicts.get());
+        return new Run(held.get(), conflicts.get(), seconds);
+    }
+
+    private void assertNoOverlappingHolds() {
+        Map<Long, List<RoomHold>> byRoom = holdRepository.findAll().stream()
+                .filter(h -> h.getStatus() == RoomHold.HoldStatus.HOLD)
+                .collect(Collectors.groupingBy(h -> h.getRoom().getId()));
+
+        byRoom.forEach((roomId, holds) -> {
+            holds.sort(Comparator.comparing(RoomHold::getStartDate));
+            for (int i = 1; i < holds.size(); i++) {
+                assertFalse(holds.get(i).getStartDate().isBefore(holds.get(i - 1).getEndDate()),
+                        "double hold on room " + roomId + ": " + holds.get(i - 1).getRequestId()
+                                + " and " + holds.get(i).getRequestId());
+            }
+        });
+    }
+
+    private void assertTimesBookedMatchesHolds() {
+        counters.flush();
+        Map<Long, Long> holdsPerRoom = holdRepository.findAll().stream()
+                .collect(Collectors.groupingBy(h -> h.getRoom().getId(), Collectors.counting()));
+
+        for (Room room : roomRepository.findAllById(roomIds)) {
+            assertEquals(holdsPerRoom.getOrDefault(room.getId(), 0L), room.getTimesBooked(),
+                    "lost timesBooked update on room " + room.getId());
+        }
+    }
+}
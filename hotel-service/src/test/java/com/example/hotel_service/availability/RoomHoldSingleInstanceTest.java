@@ -0,0 +1,78 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.Hotel;
+import com.example.hotel_service.model.Room;
+import com.example.hotel_service.model.RoomHold;
+import com.example.hotel_service.repository.HotelRepository;
+import com.example.hotel_service.repository.RoomHoldRepository;
+import com.example.hotel_service.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "spring.sql.init.mode=never",
+        "app.availability.single-instance=true"
+})
+class RoomHoldSingleInstanceTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(5);
+
+    @Autowired RoomHoldService holdService;
+    @Autowired RoomHoldIndex holdIndex;
+    @Autowired HotelRepository hotelRepository;
+    @Autowired RoomRepository roomRepository;
+    @Autowired RoomHoldRepository holdRepository;
+
+    Long roomId;
+
+    @BeforeEach
+    void setup() {
+        holdRepository.deleteAll();
+        roomRepository.deleteAll();
+        hotelRepository.deleteAll();
+        holdIndex.reload();
+
+        Hotel hotel = new Hotel();
+        hotel.setName("Single");
+        Hotel savedHotel = hotelRepository.save(hotel);
+
+        Room room = new Room();
+        room.setHotel(savedHotel);
+        room.setNumber("S1");
+        roomId = roomRepository.save(room).getId();
+    }
+
+    @Test
+    void confirm_rejectsOverlapsFromTheIndex() {
+        holdService.confirm(roomId, "first", START, START.plusDays(3), null);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> holdService.confirm(roomId, "second", START.plusDays(1), START.plusDays(2), null));
+        assertEquals(409, ex.getStatusCode().value());
+    }
+
+    @Test
+    void confirm_doesNotQueryTheTable_soHoldsWrittenElsewhereAreNotSeen() {
+        // only valid because no other instance writes room_holds in this mode
+        RoomHold foreign = new RoomHold();
+        foreign.setRequestId("not-through-this-instance");
+        foreign.setRoom(roomRepository.findById(roomId).orElseThrow());
+        foreign.setStartDate(START);
+        foreign.setEndDate(START.plusDays(3));
+        foreign.setStatus(RoomHold.HoldStatus.HOLD);
+        holdRepository.save(foreign);
+
+        assertDoesNotThrow(() -> holdService.confirm(roomId, "local", START.plusDays(1), START.plusDays(2), null));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.hotel_service.availability;
+
+import com.example.hotel_service.model.Room;
+import com.example.hotel_service.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomRankingTest {
+
+    RoomRanking ranking;
+
+    @BeforeEach
+    void setup() {
+        ranking = new RoomRanking(Mockito.mock(RoomRepository.class),
+                new RoomBookingCounters(Mockito.mock(JdbcTemplate.class), Mockito.mock(PlatformTransactionManager.class)));
+        ranking.put(room(1L, 5, true));
+        ranking.put(room(2L, 0, true));
+        ranking.put(room(3L, 0, true));
+    }
+
+    private static Room room(Long id, long timesBooked, boolean available) {
+        Room room = new Room();
+        room.setId(id);
+        room.setTimesBooked(timesBooked);
+        room.setAvailable(available);
+        return room;
+    }
+
+    @Test
+    void top_ordersByTimesBookedThenId() {
+        assertEquals(List.of(2L, 3L, 1L), ranking.top(10));
+        assertEquals(List.of(2L), ranking.top(1));
+    }
+
+    @Test
+    void createdHold_movesRoomDown() {
+        ranking.onHoldChanged(new RoomHoldEvent(RoomHoldEvent.Kind.CREATED, 2L, "r1",
+                LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 2)));
+
+        assertEquals(List.of(3L, 2L, 1L), ranking.top(10));
+    }
+
+    @Test
+    void disabledRoom_leavesRanking_andComesBackWhenEnabled() {
+        ranking.put(room(2L, 0, false));
+        assertEquals(List.of(3L, 1L), ranking.top(10));
+
+        ranking.put(room(2L, 0, true));
+        assertEquals(List.of(2L, 3L, 1L), ranking.top(10));
+    }
+}
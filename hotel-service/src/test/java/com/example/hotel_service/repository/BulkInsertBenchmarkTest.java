@@ -0,0 +1,108 @@
+package com.example.hotel_service.repository;
+
+import com.example.hotel_service.model.Hotel;
+import com.example.hotel_service.model.Room;
+import com.example.hotel_service.model.RoomHold;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert throughput for 100k rooms and 100k holds with and without JDBC batching.
+ * Run with {@code mvn test -Dtest=BulkInsertBenchmarkTest -Dbenchmark=true}.
+ *
+ * The unbatched run uses {@code batch_size=1}, i.e. one statement per row as IDENTITY ids forced.
+ * H2 in-memory has no network hop, so the gap on a real database is wider.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+class BulkInsertBenchmarkTest {
+
+    static final int ROWS = 100_000;
+    static final int CHUNK = 1_000;
+    static final LocalDate START = LocalDate.now().plusDays(1);
+
+    @Nested
+    @TestPropertySource(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=1")
+    class Unbatched extends Scenario {
+        @Test
+        void insertThroughput() {
+            run("unbatched");
+        }
+    }
+
+    @Nested
+    class Batched extends Scenario {
+        @Test
+        void insertThroughput() {
+            run("batched");
+        }
+    }
+
+    abstract static class Scenario {
+
+        @Autowired HotelRepository hotelRepository;
+        @Autowired RoomRepository roomRepository;
+        @Autowired RoomHoldRepository holdRepository;
+        @Autowired TransactionTemplate tx;
+
+        void run(String mode) {
+            Hotel hotel = new Hotel();
+            hotel.setName("Bulk " + mode);
+            Hotel savedHotel = hotelRepository.save(hotel);
+            long roomsBefore = roomRepository.count();
+            long holdsBefore = holdRepository.count();
+
+            List<Room> rooms = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                Room room = new Room();
+                room.setHotel(savedHotel);
+                room.setNumber("B" + i);
+                rooms.add(room);
+            }
+            double roomsPerSecond = insert(rooms, roomRepository);
+
+            List<RoomHold> holds = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                RoomHold hold = new RoomHold();
+                hold.setRequestId(mode + "-" + i);
+                hold.setRoom(rooms.get(i));
+                hold.setStartDate(START);
+                hold.setEndDate(START.plusDays(1));
+                holds.add(hold);
+            }
+            double holdsPerSecond = insert(holds, holdRepository);
+
+            System.out.printf("bulk insert %s: rooms %.0f rows/s, holds %.0f rows/s%n",
+                    mode, roomsPerSecond, holdsPerSecond);
+
+            assertEquals(roomsBefore + ROWS, roomRepository.count());
+            assertEquals(holdsBefore + ROWS, holdRepository.count());
+        }
+
+        private <T> double insert(List<T> rows, JpaRepository<T, Long> repository) {
+            long started = System.nanoTime();
+            for (int from = 0; from < rows.size(); from += CHUNK) {
+                List<T> chunk = rows.subList(from, Math.min(from + CHUNK, rows.size()));
+                tx.executeWithoutResult(status -> repository.saveAll(chunk));
+            }
+            return rows.size() / ((System.nanoTime() - started) / 1e9);
+        }
+    }
+}
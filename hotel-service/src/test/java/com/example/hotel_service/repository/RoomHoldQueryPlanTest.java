@@ -0,0 +1,54 @@
+package com.example.hotel_service.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * H2 query plans of the room_holds lookups against the Flyway schema.
+ * The SQL mirrors what Hibernate generates for the repository methods.
+ */
+@DataJpaTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false"
+})
+class RoomHoldQueryPlanTest {
+
+    private static final String INDEX = "IDX_ROOM_HOLDS_ROOM_STATUS_DATES";
+
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void existsByRoomIdAndStatusOverlapping_usesCompositeIndex() {
+        String plan = explain("select id from room_holds " +
+                "where room_id = 1 and status = 'HOLD' " +
+                "and start_date < date '2026-04-05' and end_date > date '2026-04-01' " +
+                "fetch first 1 rows only");
+
+        assertUsesIndex(plan);
+        assertFalse(plan.contains("ROOM_HOLDS.tableScan"), plan);
+    }
+
+    @Test
+    void findStats_joinsHoldsThroughCompositeIndex() {
+        String plan = explain("select r.id, count(rh.id) from rooms r " +
+                "left join room_holds rh on rh.room_id = r.id and rh.status = 'HOLD' " +
+                "and rh.start_date <= date '2026-04-01' and rh.end_date > date '2026-04-01' " +
+                "group by r.id order by r.id");
+
+        // rooms are scanned on purpose (every room is reported), holds must not be
+        assertUsesIndex(plan);
+        assertFalse(plan.contains("ROOM_HOLDS.tableScan"), plan);
+    }
+
+    private String explain(String sql) {
+        return jdbc.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    private static void assertUsesIndex(String plan) {
+        assertTrue(plan.toUpperCase().contains("PUBLIC." + INDEX), () -> "expected " + INDEX + " in plan:\n" + plan);
+    }
+}